@@ -0,0 +1,59 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j;
+
+/**
+ * The game theoretic result of a position for the current player.
+ *
+ * @author antoine vianey
+ */
+public enum Outcome {
+
+    /** The current player wins with perfect play */
+    WIN,
+    /** Perfect play leads to a draw */
+    DRAW,
+    /** The current player loses against perfect play */
+    LOSS,
+    /** The result of the position is not known */
+    UNKNOWN;
+
+    /**
+     * The outcome of the same position for the opponent.
+     * @return the opposite outcome
+     */
+    public Outcome opposite() {
+        switch (this) {
+            case WIN:
+                return LOSS;
+            case LOSS:
+                return WIN;
+            default:
+                return this;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.book;
+
+import fr.avianey.minimax4j.IA;
+import fr.avianey.minimax4j.Move;
+import fr.avianey.minimax4j.impl.TranspositionNegamax;
+
+/**
+ * An {@link IA} whose positions and moves can be stored in an {@link OpeningBook}.
+ *
+ * @author antoine vianey
+ *
+ * @param <M> Implementation of the Move interface to use
+ */
+public interface BookIA<M extends Move> extends IA<M> {
+
+    /**
+     * A 64 bits hash of the current position, including the player to move.
+     * Zobrist hashing is a good candidate.<br/>
+     * The signature matches {@link TranspositionNegamax#getTranspositionHash()}
+     * so that transposition engines store their positions without any additional hash.
+     * @return the hash of the current position
+     */
+    long getTranspositionHash();
+
+    /**
+     * A compact identifier of a move, unique among the possible moves of a position.
+     * @param move a move of the current player
+     * @return the id of the move, positive or zero
+     */
+    int getMoveId(M move);
+
+}
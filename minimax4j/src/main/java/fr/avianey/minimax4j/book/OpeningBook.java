@@ -0,0 +1,173 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read only access to an opening book file built by {@link OpeningBookBuilder}.<br/>
+ * The file is memory-mapped and positions are found by a binary search over the entries,
+ * without allocation, so that the book can be shared by concurrent searches.
+ * The file holds 16 bytes entries sorted by position hash after a 16 bytes header :
+ * <pre>
+ * int   magic number
+ * int   reserved
+ * long  number of entries
+ * entry : long position hash, int move id, float move value
+ * </pre>
+ * Entries of the same position are sorted by descending move value.
+ *
+ * @author antoine vianey
+ */
+public final class OpeningBook implements Closeable {
+
+    static final int MAGIC = 0x4D4F4231;
+    static final int HEADER_SIZE = 16;
+    static final int ENTRY_SIZE = 16;
+
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long size;
+
+    private OpeningBook(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+            throw new IOException("Not an opening book file");
+        }
+        header.getInt();
+        size = header.getLong();
+        long length = channel.size();
+        if (length < HEADER_SIZE + size * ENTRY_SIZE) {
+            throw new IOException("Truncated opening book file");
+        }
+        // a buffer can't map more than 2GB,
+        // entries never overlap two chunks
+        chunks = new MappedByteBuffer[(int) (((length - 1) >>> CHUNK_BITS) + 1)];
+        for (int i = 0; i < chunks.length; i++) {
+            long position = (long) i << CHUNK_BITS;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(length - position, 1L << CHUNK_BITS));
+            chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Map the given opening book file in memory.
+     * @param file a file written by {@link OpeningBookBuilder#build(int, int, Path)}
+     * @return the opening book
+     * @throws IOException if the file can't be read or is not an opening book
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new OpeningBook(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The number of entries of the book.
+     * @return the number of moves stored in the book
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Find the first entry of a position.
+     * @param hash the hash of the position as given by {@link BookIA#getTranspositionHash()}
+     * @return the index of the first entry of the position or -1 if the position is not in the book
+     */
+    public long find(final long hash) {
+        long low = 0;
+        long high = size;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (getHash(middle) < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < size && getHash(low) == hash ? low : -1;
+    }
+
+    /**
+     * The position hash of an entry.
+     * @param entry the index of the entry
+     * @return the hash of the position
+     */
+    public long getHash(final long entry) {
+        long position = HEADER_SIZE + entry * ENTRY_SIZE;
+        return chunks[(int) (position >>> CHUNK_BITS)].getLong((int) (position & CHUNK_MASK));
+    }
+
+    /**
+     * The move id of an entry.
+     * @param entry the index of the entry
+     * @return the id of the move as given by {@link BookIA#getMoveId(fr.avianey.minimax4j.Move)}
+     */
+    public int getMoveId(final long entry) {
+        long position = HEADER_SIZE + entry * ENTRY_SIZE + 8;
+        return chunks[(int) (position >>> CHUNK_BITS)].getInt((int) (position & CHUNK_MASK));
+    }
+
+    /**
+     * The move value of an entry.
+     * @param entry the index of the entry
+     * @return the value of the move for the player to move
+     */
+    public double getValue(final long entry) {
+        long position = HEADER_SIZE + entry * ENTRY_SIZE + 12;
+        return chunks[(int) (position >>> CHUNK_BITS)].getFloat((int) (position & CHUNK_MASK));
+    }
+
+    /**
+     * Close the file.<br/>
+     * The mapping is released once the book is garbage collected, it MUST NOT be read anymore.
+     * @throws IOException if the file can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
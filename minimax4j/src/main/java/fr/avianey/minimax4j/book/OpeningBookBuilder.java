@@ -0,0 +1,279 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.book;
+
+import fr.avianey.minimax4j.Move;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static java.lang.Runtime.getRuntime;
+
+/**
+ * Build an {@link OpeningBook} by searching every position of the first plies of a game.<br/>
+ * Positions are first enumerated from the initial position, transpositions being searched once.
+ * They are then distributed across workers, each worker searching positions with its own {@link BookIA}
+ * so that any engine can be used, whether it is thread safe or not.
+ *
+ * @author antoine vianey
+ *
+ * @param <M> Implementation of the Move interface to use
+ */
+public class OpeningBookBuilder<M extends Move> {
+
+    private static final int PASS = -1;
+
+    private final Supplier<? extends BookIA<M>> factory;
+    private final int parallelism;
+    private int positionCount;
+
+    /**
+     * Creates a new builder using {@link Runtime#availableProcessors()} for parallelism.
+     * @param factory creates engines set to the initial position of the game
+     */
+    public OpeningBookBuilder(Supplier<? extends BookIA<M>> factory) {
+        this(factory, getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new builder using the given parallelism.
+     * @param factory creates engines set to the initial position of the game
+     * @param parallelism how many workers should be used for computation
+     */
+    public OpeningBookBuilder(Supplier<? extends BookIA<M>> factory, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName() + " MUST use at least one processor.");
+        }
+        this.factory = factory;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Search the positions of the given number of first plies and write the book to the given file.
+     * @param plies the number of plies covered by the book (must be > 0)
+     * @param depth the search depth (must be > 0)
+     * @param file the book file to write
+     * @throws IOException if the file can't be written
+     */
+    public void build(final int plies, final int depth, Path file) throws IOException {
+        if (plies <= 0) {
+            throw new IllegalArgumentException("Book plies MUST be > 0");
+        }
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Search depth MUST be > 0");
+        }
+        final List<Position> positions = new ArrayList<>();
+        enumerate(factory.get(), plies, new int[plies], 0, new HashMap<Long, Integer>(), positions);
+        positionCount = positions.size();
+        // search positions in parallel
+        final AtomicInteger next = new AtomicInteger();
+        Collection<Callable<Void>> workers = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            workers.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    BookIA<M> ia = factory.get();
+                    int index;
+                    while ((index = next.getAndIncrement()) < positions.size()) {
+                        search(ia, positions.get(index), depth);
+                    }
+                    return null;
+                }
+            });
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<Void> worker : pool.invokeAll(workers)) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Opening book build interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Opening book search failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        Position[] sorted = positions.toArray(new Position[positions.size()]);
+        Arrays.sort(sorted);
+        write(file, sorted);
+    }
+
+    /**
+     * The number of distinct positions searched by the last build.
+     * @return the number of positions of the book
+     */
+    public int getPositionCount() {
+        return positionCount;
+    }
+
+    /**
+     * Collect the distinct positions reachable from the current position.<br/>
+     * Transpositions are expanded again when reached with fewer plies.
+     */
+    private void enumerate(BookIA<M> ia, final int plies, final int[] path, final int ply,
+            final Map<Long, Integer> plyByHash, final List<Position> positions) {
+        if (ia.isOver()) {
+            return;
+        }
+        long hash = ia.getTranspositionHash();
+        Integer known = plyByHash.put(hash, ply);
+        if (known != null && known <= ply) {
+            plyByHash.put(hash, known);
+            return;
+        }
+        Iterator<M> moves = ia.getPossibleMoves().iterator();
+        if (known == null && moves.hasNext()) {
+            positions.add(new Position(hash, Arrays.copyOf(path, ply)));
+        }
+        if (ply + 1 == plies) {
+            return;
+        }
+        if (!moves.hasNext()) {
+            ia.next();
+            path[ply] = PASS;
+            enumerate(ia, plies, path, ply + 1, plyByHash, positions);
+            ia.previous();
+        }
+        while (moves.hasNext()) {
+            M move = moves.next();
+            ia.makeMove(move);
+            path[ply] = ia.getMoveId(move);
+            enumerate(ia, plies, path, ply + 1, plyByHash, positions);
+            ia.unmakeMove(move);
+        }
+    }
+
+    /**
+     * Replay the path of a position and search it.<br/>
+     * Paths are made of the move ids given by the engine that enumerated the positions,
+     * a path leading to a move id that no possible move has fails the build.
+     */
+    private void search(BookIA<M> ia, Position position, final int depth) {
+        List<M> played = new ArrayList<>(position.path.length);
+        for (int id : position.path) {
+            M move = null;
+            if (id != PASS) {
+                for (M m : ia.getPossibleMoves()) {
+                    if (ia.getMoveId(m) == id) {
+                        move = m;
+                        break;
+                    }
+                }
+                if (move == null) {
+                    throw new IllegalStateException("Move ids MUST be the same for every engine : no possible move has id " + id);
+                }
+                ia.makeMove(move);
+            } else {
+                ia.next();
+            }
+            played.add(move);
+        }
+        List<M> moves = ia.getBestMoves(depth);
+        position.moveIds = new int[moves.size()];
+        position.values = new float[moves.size()];
+        for (int i = 0; i < moves.size(); i++) {
+            position.moveIds[i] = ia.getMoveId(moves.get(i));
+            position.values[i] = (float) moves.get(i).value;
+        }
+        for (int i = played.size() - 1; i >= 0; i--) {
+            if (played.get(i) != null) {
+                ia.unmakeMove(played.get(i));
+            } else {
+                ia.previous();
+            }
+        }
+    }
+
+    private static void write(final Path file, final Position[] positions) throws IOException {
+        long size = 0;
+        for (Position position : positions) {
+            size += position.moveIds.length;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(OpeningBook.ENTRY_SIZE << 12).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(OpeningBook.MAGIC).putInt(0).putLong(size);
+            for (Position position : positions) {
+                for (int i = 0; i < position.moveIds.length; i++) {
+                    if (buffer.remaining() < OpeningBook.ENTRY_SIZE) {
+                        flush(channel, buffer);
+                    }
+                    buffer.putLong(position.hash).putInt(position.moveIds[i]).putFloat(position.values[i]);
+                }
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * A position of the book, reached by playing the moves of its path from the initial position.
+     */
+    private static final class Position implements Comparable<Position> {
+
+        private final long hash;
+        private final int[] path;
+        private int[] moveIds;
+        private float[] values;
+
+        private Position(long hash, int[] path) {
+            this.hash = hash;
+            this.path = path;
+        }
+
+        @Override
+        public int compareTo(Position position) {
+            return Long.compare(hash, position.hash);
+        }
+    }
+
+}
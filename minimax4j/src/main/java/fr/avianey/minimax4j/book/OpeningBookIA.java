@@ -0,0 +1,99 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.book;
+
+import fr.avianey.minimax4j.IADecorator;
+import fr.avianey.minimax4j.Move;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Answer {@link #getBestMoves(int, Iterable)} from an {@link OpeningBook}
+ * and fall back to the search of the decorated {@link BookIA} for positions out of the book.<br/>
+ * Positions of the book for which a possible move is missing are searched too,
+ * as they are most likely hash collisions.
+ *
+ * @author antoine vianey
+ *
+ * @param <M> Implementation of the Move interface to use
+ */
+public class OpeningBookIA<M extends Move> extends IADecorator<M> {
+
+    private final BookIA<M> bookIA;
+    private final OpeningBook book;
+    private long bookHits;
+
+    public OpeningBookIA(BookIA<M> ia, OpeningBook book) {
+        super(ia);
+        this.bookIA = ia;
+        this.book = book;
+    }
+
+    @Override
+    public List<M> getBestMoves(int depth) {
+        return getBestMoves(depth, getPossibleMoves());
+    }
+
+    @Override
+    public List<M> getBestMoves(int depth, Iterable<M> possibleMoves) {
+        long first = book.find(bookIA.getTranspositionHash());
+        if (first >= 0) {
+            long hash = book.getHash(first);
+            List<M> moves = new ArrayList<>();
+            for (M move : possibleMoves) {
+                int id = bookIA.getMoveId(move);
+                long entry = first;
+                while (entry < book.size() && book.getHash(entry) == hash && book.getMoveId(entry) != id) {
+                    entry++;
+                }
+                if (entry == book.size() || book.getHash(entry) != hash) {
+                    // not the same position
+                    return ia.getBestMoves(depth, possibleMoves);
+                }
+                move.value = book.getValue(entry);
+                moves.add(move);
+            }
+            if (!moves.isEmpty()) {
+                bookHits++;
+                Collections.sort(moves);
+                return moves;
+            }
+        }
+        return ia.getBestMoves(depth, possibleMoves);
+    }
+
+    /**
+     * The number of positions answered from the book.
+     * @return the number of book hits
+     */
+    public long getBookHits() {
+        return bookHits;
+    }
+
+}
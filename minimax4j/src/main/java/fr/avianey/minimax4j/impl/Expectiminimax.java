@@ -0,0 +1,296 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.impl;
+
+import fr.avianey.minimax4j.Move;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Expectiminimax implementation for games with chance events such as dice rolls or card draws.
+ *
+ * <pre>
+ * function expectiminimax(node, depth)
+ *     if depth = 0 or node is a terminal node
+ *         return the heuristic value of node
+ *     if node is a chance node
+ *         return sum of probability(child) * expectiminimax(child, depth) for each child of node
+ *     return max of -expectiminimax(child, depth - 1) for each child of node
+ * </pre>
+ *
+ * Before the current player moves, {@link #getChanceOutcomes()} tells whether a chance event occurs.
+ * Outcomes are played with {@link #makeMove(Move)} and {@link #unmakeMove(Move)} but MUST NOT
+ * change the current player, chance events don't consume search depth.<br/>
+ * Chance nodes are pruned with Star1 : the values of unsearched outcomes are bounded by
+ * {@link #getValueBound()}, so that an outcome can be searched with a narrowed window and the chance node
+ * cut off as soon as its expected value is known to fall outside of the parent window. When
+ * {@link #isProbingEnabled()}, Star2 first probes the first move of each outcome to get a lower
+ * bound of the outcome values and tighten the window further.
+ *
+ * @author antoine vianey
+ *
+ * @param <M> Implementation of the Move interface to use
+ */
+public abstract class Expectiminimax<M extends Move> extends Negamax<M> {
+
+    private long chanceCutoffs;
+    private ChanceOutcomes<M>[] buffers = newBuffers(0);
+    // the number of chance nodes being searched
+    private int chanceLevel;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <M extends Move> ChanceOutcomes<M>[] newBuffers(final int levels) {
+        return new ChanceOutcomes[levels];
+    }
+
+    @Override
+    public List<M> getBestMoves(final int depth, final double expectedScore, Iterable<M> possibleMoves) {
+        // chance events don't consume depth but occur at most once per move
+        prepare(depth + 1);
+        chanceLevel = 0;
+        return super.getBestMoves(depth, expectedScore, possibleMoves);
+    }
+
+    /**
+     * Make the outcome buffers large enough for the given number of nested chance nodes.
+     * @param levels the number of nested chance nodes
+     */
+    private void prepare(final int levels) {
+        if (levels > buffers.length) {
+            int from = buffers.length;
+            buffers = Arrays.copyOf(buffers, levels);
+            for (int i = from; i < levels; i++) {
+                buffers[i] = new ChanceOutcomes<>();
+            }
+        }
+    }
+
+    @Override
+    protected double negamax(Iterable<M> initialMoves, final int depth, double alpha, double beta) {
+        if (initialMoves == null && depth > 0 && !isOver()) {
+            Iterable<M> outcomes = getChanceOutcomes();
+            if (outcomes != null) {
+                return chance(outcomes, depth, alpha, beta);
+            }
+        }
+        return super.negamax(initialMoves, depth, alpha, beta);
+    }
+
+    /**
+     * Search a chance node using the outcome buffer of its nesting level.
+     */
+    private double chance(final Iterable<M> outcomes, final int depth, final double alpha, final double beta) {
+        prepare(chanceLevel + 1);
+        ChanceOutcomes<M> buffer = buffers[chanceLevel++];
+        try {
+            return chance(buffer, outcomes, depth, alpha, beta);
+        } finally {
+            chanceLevel--;
+        }
+    }
+
+    /**
+     * Star1 / Star2 search of a chance node.
+     * @param events the buffer receiving the outcomes and their probabilities
+     * @param outcomes the outcomes of the chance event
+     * @param depth the remaining depth
+     * @param alpha the lower bound of the search window
+     * @param beta the upper bound of the search window
+     * @return the expected value of the chance node for the current player
+     */
+    private double chance(final ChanceOutcomes<M> events, final Iterable<M> outcomes, final int depth, final double alpha, final double beta) {
+        final double upper = getValueBound();
+        final double lower = -upper;
+        events.size = 0;
+        for (M outcome : outcomes) {
+            events.add(outcome, getProbability(outcome));
+        }
+        final int n = events.size;
+        final double[] probabilities = events.probabilities;
+        final double[] lowerBounds = events.lowerBounds;
+        // bounds of the expected value of the outcomes remaining to search
+        double lowerRest = 0;
+        double upperRest = 0;
+        for (int i = 0; i < n; i++) {
+            lowerBounds[i] = lower;
+            lowerRest += probabilities[i] * lower;
+            upperRest += probabilities[i] * upper;
+        }
+        if (isProbingEnabled()) {
+            // Star2 probing phase :
+            // the first move of the player gives a lower bound of each outcome
+            for (int i = 0; i < n; i++) {
+                double p = probabilities[i];
+                double b = lower + (beta - lowerRest) / p;
+                M outcome = events.get(i);
+                makeMove(outcome);
+                double probe = probe(depth, lower, Math.min(b, upper));
+                unmakeMove(outcome);
+                if (isAborted()) {
+                    return alpha;
+                }
+                if (probe > lower) {
+                    lowerRest += p * (probe - lower);
+                    lowerBounds[i] = probe;
+                    if (lowerRest >= beta) {
+                        chanceCutoffs++;
+                        return lowerRest;
+                    }
+                }
+            }
+        }
+        // Star1 search phase
+        double expected = 0;
+        for (int i = 0; i < n; i++) {
+            double p = probabilities[i];
+            lowerRest -= p * lowerBounds[i];
+            upperRest -= p * upper;
+            double a = (alpha - expected - upperRest) / p;
+            double b = (beta - expected - lowerRest) / p;
+            M outcome = events.get(i);
+            makeMove(outcome);
+            double score = negamax(null, depth, Math.max(a, lowerBounds[i]), Math.min(b, upper));
+            unmakeMove(outcome);
+            if (isAborted()) {
+                return alpha;
+            }
+            expected += p * score;
+            if (score <= a) {
+                // fail low
+                chanceCutoffs++;
+                return expected + upperRest;
+            }
+            if (score >= b) {
+                // fail high
+                chanceCutoffs++;
+                return expected + lowerRest;
+            }
+        }
+        return expected;
+    }
+
+    /**
+     * Reusable buffer of the outcomes of a chance node, one per nested chance node.
+     */
+    private static final class ChanceOutcomes<M extends Move> {
+
+        private Object[] outcomes = new Object[8];
+        private double[] probabilities = new double[8];
+        private double[] lowerBounds = new double[8];
+        private int size;
+
+        private void add(final M outcome, final double probability) {
+            if (size == outcomes.length) {
+                outcomes = Arrays.copyOf(outcomes, size * 2);
+                probabilities = Arrays.copyOf(probabilities, size * 2);
+                lowerBounds = Arrays.copyOf(lowerBounds, size * 2);
+            }
+            outcomes[size] = outcome;
+            probabilities[size++] = probability;
+        }
+
+        @SuppressWarnings("unchecked")
+        private M get(final int i) {
+            return (M) outcomes[i];
+        }
+    }
+
+    /**
+     * Search the first move of the current player only.
+     * @return a lower bound of the value of the position for the current player
+     */
+    private double probe(final int depth, final double alpha, final double beta) {
+        if (isOver()) {
+            return negamax(null, depth, alpha, beta);
+        }
+        if (getChanceOutcomes() != null) {
+            return alpha;
+        }
+        Iterator<M> moves = getPossibleMoves().iterator();
+        if (!moves.hasNext()) {
+            return alpha;
+        }
+        M move = moves.next();
+        makeMove(move);
+        double score = -negamax(null, depth - 1, -beta, -alpha);
+        unmakeMove(move);
+        return score;
+    }
+
+    /**
+     * List the outcomes of the chance event occurring before the current player moves.<br/>
+     * Outcomes are played and undone with {@link #makeMove(Move)} and {@link #unmakeMove(Move)} and
+     * MUST NOT change the current player. Once an outcome is played, this method MUST return null until
+     * the current player has moved.
+     * @return the outcomes of the chance event or null if the current player moves without chance event
+     * @see #getProbability(Move)
+     */
+    protected abstract Iterable<M> getChanceOutcomes();
+
+    /**
+     * The probability of a chance outcome.
+     * The probabilities of the outcomes returned by {@link #getChanceOutcomes()} MUST sum to 1.
+     * @param outcome an outcome of the current chance event
+     * @return the probability of the outcome
+     */
+    protected abstract double getProbability(M outcome);
+
+    /**
+     * A bound of the absolute value of any position.<br/>
+     * Star1 pruning assumes unsearched outcomes can score anywhere between -bound and +bound :
+     * the tighter the bound, the more chance nodes are pruned. Defaults to {@link #maxEvaluateValue()}.
+     * @return the maximal absolute value of a position
+     */
+    protected double getValueBound() {
+        return maxEvaluateValue();
+    }
+
+    /**
+     * Tell whether chance nodes are probed (Star2) before being searched (Star1).<br/>
+     * Probing pays off when {@link #getPossibleMoves()} returns good moves first. Defaults to true.
+     * @return true to enable the Star2 probing phase
+     */
+    protected boolean isProbingEnabled() {
+        return true;
+    }
+
+    /**
+     * The number of chance nodes cut off by Star1 or Star2 pruning.
+     * @return the number of chance node cutoffs since the last call to {@link #resetStatistics()}
+     */
+    public long getChanceCutoffs() {
+        return chanceCutoffs;
+    }
+
+    @Override
+    public void resetStatistics() {
+        super.resetStatistics();
+        chanceCutoffs = 0;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.impl;
+
+import java.util.Arrays;
+
+/**
+ * {@link TranspositionTable} backed by a preallocated <code>long[]</code>.<br/>
+ * Positions are stored using the {@link ReplacementPolicy#DEPTH_PREFERRED} policy unless specified.
+ *
+ * @author antoine vianey
+ */
+public class HeapTranspositionTable extends TranspositionTable {
+
+    private static final int MAX_ENTRIES = 1 << 29;
+
+    private final long[] table;
+
+    /**
+     * Creates a table holding the given number of entries, rounded down to a power of 2.
+     * @param entries the number of entries (must be > 0)
+     */
+    public HeapTranspositionTable(final int entries) {
+        this(entries, false);
+    }
+
+    /**
+     * Creates a table holding the given number of entries, rounded down to a power of 2.
+     * @param entries the number of entries (must be > 0)
+     * @param keyed whether the keys of the entries are stored and verified
+     */
+    public HeapTranspositionTable(final int entries, final boolean keyed) {
+        this(entries, keyed, ReplacementPolicy.DEPTH_PREFERRED);
+    }
+
+    /**
+     * Creates a table holding the given number of entries, rounded down to a power of 2.
+     * @param entries the number of entries (must be > 0)
+     * @param keyed whether the keys of the entries are stored and verified
+     * @param replacementPolicy how positions replace the entries of the table
+     */
+    public HeapTranspositionTable(final int entries, final boolean keyed, final ReplacementPolicy replacementPolicy) {
+        super(capacity(entries, MAX_ENTRIES, replacementPolicy), keyed, replacementPolicy);
+        this.table = new long[size() * 2];
+    }
+
+    /**
+     * Creates a table using at most the given amount of memory.
+     * @param megabytes the size of the table in megabytes (must be > 0)
+     * @param keyed whether the keys of the entries are stored and verified,
+     *              the memory used by the keys themselves is not accounted
+     * @return the table
+     */
+    public static HeapTranspositionTable ofMegabytes(final int megabytes, final boolean keyed) {
+        return ofMegabytes(megabytes, keyed, ReplacementPolicy.DEPTH_PREFERRED);
+    }
+
+    /**
+     * Creates a table using at most the given amount of memory.
+     * @param megabytes the size of the table in megabytes (must be > 0)
+     * @param keyed whether the keys of the entries are stored and verified,
+     *              the memory used by the keys themselves is not accounted
+     * @param replacementPolicy how positions replace the entries of the table
+     * @return the table
+     */
+    public static HeapTranspositionTable ofMegabytes(final int megabytes, final boolean keyed, final ReplacementPolicy replacementPolicy) {
+        if (megabytes <= 0) {
+            throw new IllegalArgumentException("Transposition table size MUST be > 0");
+        }
+        long entries = ((long) megabytes << 20) / (ENTRY_BYTES + (keyed ? KEY_BYTES : 0));
+        return new HeapTranspositionTable((int) Math.min(entries, Integer.MAX_VALUE), keyed, replacementPolicy);
+    }
+
+    @Override
+    long word(final int slot) {
+        return table[slot << 1];
+    }
+
+    @Override
+    long score(final int slot) {
+        return table[(slot << 1) + 1];
+    }
+
+    @Override
+    void put(final int slot, final long word, final long score) {
+        table[(slot << 1) + 1] = score;
+        table[slot << 1] = word;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        Arrays.fill(table, 0);
+    }
+
+}
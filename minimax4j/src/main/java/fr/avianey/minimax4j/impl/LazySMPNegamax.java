@@ -0,0 +1,242 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.impl;
+
+import fr.avianey.minimax4j.Move;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static fr.avianey.minimax4j.IAUtils.iterableToSortedList;
+import static java.lang.Runtime.getRuntime;
+
+/**
+ * Parallel {@link Negamax} using the Lazy SMP approach.<br/>
+ * Helper threads run the same iterative deepening search from the root as the main search
+ * and share their results through a single {@link TranspositionTable}. Depths are staggered :
+ * each helper skips iterations following its own pattern, so that threads don't search the same positions
+ * at the same time. Helpers fill the table with entries that the main search and the other helpers
+ * reuse as soon as they reach the same positions, so that the search scales without splitting the tree :
+ * each helper clones the game once per search instead of once per node as {@link ParallelNegamax} does.
+ * Helpers probe and store the table like a {@link TranspositionNegamax} using an unkeyed table.
+ * The result is the one of the main search, helpers are stopped as soon as it completes.
+ *
+ * @param <M> Implementation of the Move interface to use
+ * @author antoine vianey
+ */
+public abstract class LazySMPNegamax<M extends Move> extends TranspositionNegamax<M, Void, Void> implements Cloneable {
+
+    private static final int DEFAULT_TABLE_SIZE = 1 << 20;
+
+    /**
+     * Helpers search depths by blocks of {@code SKIP_SIZE} iterations,
+     * every other block being skipped, starting at {@code SKIP_PHASE}.
+     */
+    private static final int[] SKIP_SIZE = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+    private static final int[] SKIP_PHASE = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+
+    private static final long UNBOUNDED = Long.MAX_VALUE / 2;
+
+    private final ForkJoinPool pool;
+    private boolean helper;
+    private boolean searching;
+    // the skip pattern of helpers
+    private int skip;
+
+    /**
+     * Creates a new LazySMPNegamax using {@link Runtime#availableProcessors()} for parallelism.
+     */
+    public LazySMPNegamax() {
+        this(getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new LazySMPNegamax using the given parallelism.
+     * @param parallelism how many threads should search, including the calling thread
+     */
+    public LazySMPNegamax(int parallelism) {
+        this(parallelism, new HeapTranspositionTable(DEFAULT_TABLE_SIZE));
+    }
+
+    /**
+     * Creates a new LazySMPNegamax using the given parallelism and transposition table.
+     * @param parallelism how many threads should search, including the calling thread
+     * @param transpositionTable the table shared by the searching threads, it MUST NOT be keyed
+     */
+    public LazySMPNegamax(int parallelism, TranspositionTable transpositionTable) {
+        super(transpositionTable);
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName() + " MUST use at least one processor.");
+        }
+        if (transpositionTable.isKeyed()) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName() + " can't share a keyed transposition table between threads.");
+        }
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism - 1) : null;
+    }
+
+    /**
+     * Creates a new IA sharing the threads and the transposition table of the given instance.<br/>
+     * This constructor MUST be used when creating clones.
+     * @param from the instance to clone
+     */
+    protected LazySMPNegamax(LazySMPNegamax<M> from) {
+        super(from.getTranspositionTable());
+        this.pool = from.pool;
+    }
+
+    /**
+     * Get {@link Move} evaluations at the given search depth.<br/>
+     * The main thread runs the same iterative deepening search as the helpers up to the given depth,
+     * each iteration using the score of the previous one as expected score.
+     * @param depth The search depth (must be > 0)
+     * @param expectedScore The expected score of the first iteration or {@link Double#NaN} if unknown
+     * @param possibleMoves The list of possible moves
+     * @return The list of possible moves in descending evaluation order (best first)
+     */
+    @Override
+    public List<M> getBestMoves(final int depth, final double expectedScore, Iterable<M> possibleMoves) {
+        if (helper || searching) {
+            // an iteration of the iterative deepening search
+            return super.getBestMoves(depth, expectedScore, possibleMoves);
+        }
+        return getBestMovesUntil(System.nanoTime() + UNBOUNDED, 1, depth, possibleMoves);
+    }
+
+    @Override
+    List<M> getBestMovesUntil(final long deadline, final int minDepth, final int maxDepth, Iterable<M> possibleMoves) {
+        if (helper || searching) {
+            return super.getBestMovesUntil(deadline, minDepth, maxDepth, possibleMoves);
+        }
+        getTranspositionTable().nextAge();
+        List<M> orderedMoves = iterableToSortedList(possibleMoves);
+        int parallelism = pool == null || maxDepth <= 1 ? 0 : pool.getParallelism();
+        List<LazySMPNegamax<M>> helpers = new ArrayList<>(parallelism);
+        List<Future<?>> searches = new ArrayList<>(parallelism);
+        for (int i = 1; i <= parallelism; i++) {
+            final LazySMPNegamax<M> helper = clone();
+            helper.helper = true;
+            helper.skip = (i - 1) % SKIP_SIZE.length;
+            final List<M> moves = iterableToSortedList(helper.getPossibleMoves());
+            // staggered depths
+            int depth = Math.min(minDepth, maxDepth);
+            while (depth < maxDepth && helper.isIterationSkipped(depth)) {
+                depth++;
+            }
+            final int startDepth = depth;
+            // diversify root move orders
+            Collections.rotate(moves, i);
+            helpers.add(helper);
+            searches.add(pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    helper.getBestMovesUntil(System.nanoTime() + UNBOUNDED, startDepth, maxDepth, moves);
+                }
+            }));
+        }
+        Throwable failure = null;
+        searching = true;
+        try {
+            return super.getBestMovesUntil(deadline, minDepth, maxDepth, orderedMoves);
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            searching = false;
+            for (LazySMPNegamax<M> helper : helpers) {
+                helper.abort();
+            }
+            for (Future<?> search : searches) {
+                try {
+                    search.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        throw new IllegalStateException("Helper search failed", e.getCause());
+                    }
+                    // don't hide the failure of the main search
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        }
+    }
+
+    /**
+     * Helpers skip every other block of iterations of their skip pattern.
+     */
+    @Override
+    boolean isIterationSkipped(final int depth) {
+        return helper && ((depth + SKIP_PHASE[skip]) / SKIP_SIZE[skip]) % 2 != 0;
+    }
+
+    /**
+     * The search is aged once by the main thread, before helpers start.
+     */
+    @Override
+    void ageTranspositions() {
+    }
+
+    /**
+     * Positions are only verified through {@link #getTranspositionHash()}.
+     * @return null
+     */
+    @Override
+    public final Void getTranspositionKey() {
+        return null;
+    }
+
+    /**
+     * Transpositions are not grouped.
+     * @return null
+     */
+    @Override
+    public final Void getGroup() {
+        return null;
+    }
+
+    /**
+     * A 64 bits hash of the current position, including the player to move.<br/>
+     * A <a href="http://en.wikipedia.org/wiki/Zobrist_hashing">Zobrist hashing</a> is a good candidate.
+     * Positions are only verified through the hash, so collisions MUST be negligible.
+     * @return the hash of the current position
+     */
+    @Override
+    public abstract long getTranspositionHash();
+
+    /**
+     * Creates a copy of the game for a helper thread.
+     * Implementations MUST use the {@link #LazySMPNegamax(LazySMPNegamax)} constructor.
+     * @return a copy of the current position
+     */
+    @Override
+    public abstract LazySMPNegamax<M> clone();
+
+}
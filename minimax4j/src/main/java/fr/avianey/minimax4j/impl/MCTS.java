@@ -0,0 +1,357 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.impl;
+
+import fr.avianey.minimax4j.IA;
+import fr.avianey.minimax4j.Move;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monte Carlo Tree Search implementation using the UCT selection rule.
+ *
+ * <pre>
+ * function mcts(root)
+ *     while within budget
+ *         node := root
+ *         while node is expanded                      // selection
+ *             node := child maximizing wins / visits + C * sqrt(ln(parent visits) / visits)
+ *         expand node                                 // expansion
+ *         reward := playout(node)                     // simulation
+ *         update node and its ancestors with reward   // backpropagation
+ *     return the most visited child of root
+ * </pre>
+ *
+ * The tree is stored in primitive arrays indexed by node, children of a node being contiguous,
+ * so that no object is allocated per node. The tree is built again for each search
+ * and holds at most {@link #getMaxNodes()} nodes, leaves are not expanded anymore once it is full.<br/>
+ * The depth given to {@link #getBestMoves(int, Iterable)} bounds the length of playouts :
+ * positions that are not over at the end of a playout are scored using {@link #getPlayoutReward()}.
+ * The moves returned by a search are ranked by visit count and their {@link Move#value} is set to their
+ * number of visits.
+ *
+ * @author antoine vianey
+ *
+ * @param <M> Implementation of the Move interface to use
+ */
+public abstract class MCTS<M extends Move> implements IA<M> {
+
+    private static final int ROOT = 0;
+
+    private int[] parent = new int[0];
+    private int[] firstChild = new int[0];
+    private int[] childCount = new int[0];
+    private int[] visits = new int[0];
+    private double[] rewards = new double[0];
+    private Object[] moves = new Object[0];
+    private int size;
+    private int maxNodes;
+    private boolean full;
+
+    private final List<M> playoutMoves = new ArrayList<>();
+    private final List<M> playedMoves = new ArrayList<>();
+    private int[] path = new int[16];
+
+    /**
+     * Get the best {@link Move} after {@link #getIterations()} iterations.
+     * @param depth The maximum length of playouts (must be > 0)
+     * @param possibleMoves The list of possible moves
+     * @return The list of possible moves in descending visit count order (best first)
+     */
+    public List<M> getBestMoves(final int depth, Iterable<M> possibleMoves) {
+        return search(depth, possibleMoves, getIterations(), 0, false);
+    }
+
+    /**
+     * Get the best {@link Move} within the given time budget.
+     * @param timeBudget the maximum time to spend searching
+     * @param unit the unit of the time budget
+     * @return The list of possible moves in descending visit count order (best first)
+     * @see #getBestMovesWithin(long, TimeUnit, int, Iterable)
+     */
+    public List<M> getBestMovesWithin(final long timeBudget, final TimeUnit unit) {
+        return getBestMovesWithin(timeBudget, unit, Integer.MAX_VALUE, getPossibleMoves());
+    }
+
+    /**
+     * Get the best {@link Move} within the given time budget.<br/>
+     * The search stops at the first iteration started after the deadline, the number of iterations is not bounded
+     * but the tree stops growing once it holds {@link #getMaxNodes()} nodes.
+     * @param timeBudget the maximum time to spend searching
+     * @param unit the unit of the time budget
+     * @param depth The maximum length of playouts (must be > 0)
+     * @param possibleMoves The list of possible moves
+     * @return The list of possible moves in descending visit count order (best first)
+     */
+    public List<M> getBestMovesWithin(final long timeBudget, final TimeUnit unit, final int depth, Iterable<M> possibleMoves) {
+        return search(depth, possibleMoves, Integer.MAX_VALUE, System.nanoTime() + unit.toNanos(timeBudget), true);
+    }
+
+    /**
+     * Search the given root moves until the number of iterations or the deadline is reached.
+     * @param depth the maximum length of playouts
+     * @param possibleMoves the root moves
+     * @param iterations the maximum number of iterations
+     * @param deadline the deadline as given by {@link System#nanoTime()}
+     * @param timed whether the deadline applies
+     * @return The list of possible moves in descending visit count order (best first)
+     */
+    List<M> search(final int depth, Iterable<M> possibleMoves, final int iterations, final long deadline, final boolean timed) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Search depth MUST be > 0");
+        }
+        size = 0;
+        maxNodes = getMaxNodes();
+        full = false;
+        newNode(-1, null);
+        expand(ROOT, possibleMoves);
+        if (childCount[ROOT] > 0) {
+            for (int i = 0; i < iterations && (!timed || System.nanoTime() - deadline < 0); i++) {
+                iterate(depth);
+            }
+        }
+        List<M> bestMoves = new ArrayList<>(childCount[ROOT]);
+        for (int child = firstChild[ROOT], end = child + childCount[ROOT]; child < end; child++) {
+            M move = move(child);
+            move.value = visits[child];
+            bestMoves.add(move);
+        }
+        Collections.sort(bestMoves);
+        return bestMoves;
+    }
+
+    /**
+     * Run a single select, expand, playout and backpropagate iteration from the root.
+     * @param depth the maximum length of the playout
+     */
+    private void iterate(final int depth) {
+        int node = ROOT;
+        int length = 0;
+        // selection
+        while (childCount[node] > 0) {
+            node = select(node);
+            makeMove(move(node));
+            length = push(length, node);
+        }
+        // expansion
+        if (!full && visits[node] > 0 && !isOver()) {
+            expand(node, getPossibleMoves());
+            if (childCount[node] > 0) {
+                node = firstChild[node];
+                makeMove(move(node));
+                length = push(length, node);
+            }
+        }
+        // simulation, from the point of view of the player to move at node
+        double reward = playout(depth);
+        // backpropagation, each node keeps the rewards of the player who moved to it
+        for (int n = node; n != -1; n = parent[n]) {
+            reward = 1 - reward;
+            visits[n]++;
+            rewards[n] += reward;
+        }
+        while (length > 0) {
+            unmakeMove(move(path[--length]));
+        }
+    }
+
+    private int push(final int length, final int node) {
+        if (length == path.length) {
+            path = Arrays.copyOf(path, length * 2);
+        }
+        path[length] = node;
+        return length + 1;
+    }
+
+    /**
+     * Select the child of the given node maximizing the UCT value.
+     * Unvisited children are selected first.
+     * @param node an expanded node
+     * @return the selected child
+     */
+    private int select(final int node) {
+        final double c = getExplorationConstant();
+        final double logVisits = Math.log(visits[node]);
+        int best = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int child = firstChild[node], end = child + childCount[node]; child < end; child++) {
+            int n = visits[child];
+            if (n == 0) {
+                return child;
+            }
+            double value = rewards[child] / n + c * Math.sqrt(logVisits / n);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Create the children of the given node.<br/>
+     * The root node is always expanded, other nodes are left unexpanded once the tree is full.
+     * @param node a leaf node
+     * @param possibleMoves the moves of the current player
+     */
+    private void expand(final int node, final Iterable<M> possibleMoves) {
+        int first = size;
+        for (M move : possibleMoves) {
+            if (size >= maxNodes && node != ROOT) {
+                // the children don't fit
+                size = first;
+                full = true;
+                return;
+            }
+            newNode(node, move);
+        }
+        firstChild[node] = first;
+        childCount[node] = size - first;
+    }
+
+    private int newNode(final int parentNode, final M move) {
+        if (size == visits.length) {
+            int capacity = Math.max(Math.min(Math.max(size * 2, 1024), maxNodes), size + 1);
+            parent = Arrays.copyOf(parent, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            childCount = Arrays.copyOf(childCount, capacity);
+            visits = Arrays.copyOf(visits, capacity);
+            rewards = Arrays.copyOf(rewards, capacity);
+            moves = Arrays.copyOf(moves, capacity);
+        }
+        parent[size] = parentNode;
+        firstChild[size] = 0;
+        childCount[size] = 0;
+        visits[size] = 0;
+        rewards[size] = 0;
+        moves[size] = move;
+        return size++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private M move(final int node) {
+        return (M) moves[node];
+    }
+
+    /**
+     * Play moves selected by {@link #selectPlayoutMove(List)} until the game is over
+     * or the maximum length is reached, and restore the position.
+     * @param depth the maximum length of the playout
+     * @return the reward of the starting position for its current player
+     */
+    final double playout(final int depth) {
+        int length = 0;
+        while (length < depth && !isOver()) {
+            playoutMoves.clear();
+            for (M move : getPossibleMoves()) {
+                playoutMoves.add(move);
+            }
+            M move = null;
+            if (playoutMoves.isEmpty()) {
+                next();
+            } else {
+                move = selectPlayoutMove(playoutMoves);
+                makeMove(move);
+            }
+            playedMoves.add(move);
+            length++;
+        }
+        double reward = getPlayoutReward();
+        for (int i = length - 1; i >= 0; i--) {
+            M move = playedMoves.remove(i);
+            if (move == null) {
+                previous();
+            } else {
+                unmakeMove(move);
+            }
+        }
+        if (length % 2 == 1) {
+            reward = 1 - reward;
+        }
+        return reward;
+    }
+
+    /**
+     * The playout policy.<br/>
+     * Select the move to play during playouts among the moves of the current player.
+     * Defaults to a uniformly random move, override this method to use game specific knowledge.
+     * @param possibleMoves the non empty list of the current player moves
+     * @return the move to play
+     */
+    protected M selectPlayoutMove(final List<M> possibleMoves) {
+        return possibleMoves.get(ThreadLocalRandom.current().nextInt(possibleMoves.size()));
+    }
+
+    /**
+     * The reward of the position at the end of a playout for the current player, between 0 and 1.<br/>
+     * Defaults to 1 for a win, 0.5 for a draw and 0 for a loss according to the sign of {@link #evaluate()}.
+     * @return the reward of the position for the current player
+     */
+    protected double getPlayoutReward() {
+        double score = evaluate();
+        return score > 0 ? 1 : score < 0 ? 0 : 0.5;
+    }
+
+    /**
+     * The exploration constant C of the UCT selection rule.<br/>
+     * Greater values favor the exploration of less visited moves. Defaults to &#8730;2.
+     * @return the exploration constant
+     */
+    protected double getExplorationConstant() {
+        return Math.sqrt(2);
+    }
+
+    /**
+     * The number of iterations performed by {@link #getBestMoves(int, Iterable)}. Defaults to 10000.
+     * @return the number of iterations of a search
+     */
+    protected int getIterations() {
+        return 10000;
+    }
+
+    /**
+     * The maximum number of nodes of the search tree. Defaults to 2<sup>18</sup>.<br/>
+     * The tree always holds the root node and its children.
+     * @return the maximum number of nodes of the tree
+     */
+    protected int getMaxNodes() {
+        return 1 << 18;
+    }
+
+    /**
+     * The number of nodes of the tree built by the last search.
+     * @return the size of the search tree
+     */
+    public int getNodeCount() {
+        return size;
+    }
+}
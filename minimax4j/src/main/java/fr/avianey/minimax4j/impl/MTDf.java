@@ -0,0 +1,156 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.impl;
+
+import fr.avianey.minimax4j.Move;
+
+import java.util.List;
+
+/**
+ * MTD(f) based implementation.
+ *
+ * <pre>
+ * function mtdf(root, f, depth)
+ *     g := f
+ *     upperBound := +&#8734;
+ *     lowerBound := -&#8734;
+ *     while lowerBound < upperBound
+ *         &#946; := max(g, lowerBound + 1)
+ *         g := alphaBetaWithMemory(root, &#946; - 1, &#946;, depth)
+ *         if g < &#946;
+ *             upperBound := g
+ *         else
+ *             lowerBound := g
+ *     return g
+ * </pre>
+ *
+ * MTD(f) converges on the minimax value through a series of zero window searches.
+ * Each search relies on the bounds stored in the transposition table by the previous ones,
+ * the closer the first guess is to the minimax value, the fewer searches are needed.
+ * The first guess is the expected score given to {@link #getBestMoves(int, double, Iterable)},
+ * the score of the previous search is used by {@link #getBestMoves(int, Iterable)}.<br/>
+ * Zero window searches don't collect the principal variation : it is rebuilt from the best moves
+ * stored in the transposition table, which requires a {@link TranspositionTable} and move ids.
+ * Otherwise {@link #getPrincipalVariation()} only holds the best move.
+ *
+ * @author antoine vianey
+ *
+ * @param <M> Implementation of the Move interface to use
+ * @param <K> The key used for the transposition table
+ * @param <G> An optional {@link Comparable<G>} use to group transpositions
+ * @see #getZeroWindowWidth()
+ */
+public abstract class MTDf<M extends Move, K, G> extends TranspositionNegamax<M, K, G> {
+
+    private M bestMove;
+
+    public MTDf() {
+        super();
+    }
+
+    public MTDf(final int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    public MTDf(final int initialCapacity, final float loadFactor) {
+        super(initialCapacity, loadFactor);
+    }
+
+    public MTDf(TranspositionTableFactory<K> transpositionTableFactory) {
+        super(transpositionTableFactory);
+    }
+
+    public MTDf(TranspositionTable transpositionTable) {
+        super(transpositionTable);
+    }
+
+    /**
+     * Converge on the minimax value using zero window searches from the expected score.
+     * @param orderedMoves the root moves in search order
+     * @param depth the search depth
+     * @param expectedScore the first guess or {@link Double#NaN} to start from 0
+     * @return the score of the root position
+     */
+    @Override
+    protected double search(final List<M> orderedMoves, final int depth, final double expectedScore) {
+        bestMove = null;
+        if (multiPV > 1) {
+            // zero window searches can't give exact values for several moves
+            return super.search(orderedMoves, depth, expectedScore);
+        }
+        double lowerBound = -maxEvaluateValue();
+        double upperBound = maxEvaluateValue();
+        double g = Double.isNaN(expectedScore) ? 0 : Math.max(lowerBound, Math.min(upperBound, expectedScore));
+        M best = null;
+        while (lowerBound < upperBound) {
+            double b = g == lowerBound ? Math.min(g + getZeroWindowWidth(), upperBound) : g;
+            g = searchRoot(orderedMoves, depth, b - getZeroWindowWidth(), b);
+            if (isAborted()) {
+                return g;
+            }
+            if (g < b) {
+                upperBound = g;
+            } else {
+                lowerBound = g;
+                // the first move failing high
+                // is the best one so far
+                for (M move : orderedMoves) {
+                    if (move.value >= b) {
+                        best = move;
+                        break;
+                    }
+                }
+            }
+        }
+        if (best != null) {
+            // moves not searched by the last zero window search
+            // hold bounds from previous ones that may exceed g
+            for (M move : orderedMoves) {
+                if (move.value > g) {
+                    move.value = g;
+                }
+            }
+            orderedMoves.remove(best);
+            orderedMoves.add(0, best);
+        }
+        bestMove = best;
+        return g;
+    }
+
+    /**
+     * The last zero window search fails low or high at the root,
+     * so the principal variation is rebuilt from the best moves stored in the table.
+     */
+    @Override
+    List<M> principalVariation(final List<M> orderedMoves, final int depth) {
+        if (bestMove == null) {
+            return super.principalVariation(orderedMoves, depth);
+        }
+        return hashMoves(bestMove, depth);
+    }
+
+}
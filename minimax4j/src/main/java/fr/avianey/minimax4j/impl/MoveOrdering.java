@@ -0,0 +1,263 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.impl;
+
+import fr.avianey.minimax4j.Move;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Move ordering tables maintained by {@link Negamax} during the search :
+ * <ul>
+ * <li>two killer moves per ply : quiet moves that caused a cutoff in a sibling node</li>
+ * <li>a history table : the cutoffs caused by each quiet move, weighted by depth</li>
+ * <li>a counter move table : the quiet move that last refuted each move</li>
+ * </ul>
+ * Moves are identified by the compact id given by {@link Negamax#getMoveId(Move)}
+ * so that all the tables are primitive arrays.<br/>
+ * The move of the previous principal variation comes first for nodes lying on it,
+ * then the hash move stored in the transposition table, then noisy moves in the order of {@link Negamax#getPossibleMoves()},
+ * then killer moves, counter moves and remaining quiet moves by history score.
+ *
+ * @author antoine vianey
+ *
+ * @param <M> Implementation of the Move interface to use
+ */
+final class MoveOrdering<M extends Move> {
+
+    private static final int NONE = -1;
+
+    private static final long PV_SCORE = Long.MAX_VALUE;
+    private static final long HASH_SCORE = Long.MAX_VALUE - 1;
+    private static final long NOISY_SCORE = 1L << 62;
+    private static final long KILLER_SCORE = 1L << 61;
+    private static final long COUNTER_SCORE = 1L << 60;
+    private static final long HISTORY_MAX = 1L << 59;
+
+    private final long[] history;
+    private final int[] counterMoves;
+    private int[] killers = new int[0];
+    private int[] playedMoves = new int[0];
+    private int[] pvMoves = new int[0];
+    private boolean[] onPV = new boolean[0];
+    private OrderedMoves<M>[] orderedMoves;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    MoveOrdering(final int moveIdCount) {
+        history = new long[moveIdCount];
+        counterMoves = new int[moveIdCount];
+        Arrays.fill(counterMoves, NONE);
+        orderedMoves = new OrderedMoves[0];
+    }
+
+    /**
+     * Make the tables large enough for the given number of plies
+     * and age the history table so that recent cutoffs prevail.
+     * @param plies the number of plies of the next search
+     */
+    void prepare(final int plies) {
+        if (plies > playedMoves.length) {
+            int from = playedMoves.length;
+            killers = Arrays.copyOf(killers, plies * 2);
+            Arrays.fill(killers, from * 2, plies * 2, NONE);
+            playedMoves = Arrays.copyOf(playedMoves, plies);
+            pvMoves = Arrays.copyOf(pvMoves, plies);
+            Arrays.fill(pvMoves, from, plies, NONE);
+            onPV = Arrays.copyOf(onPV, plies + 1);
+            orderedMoves = Arrays.copyOf(orderedMoves, plies);
+            for (int i = from; i < plies; i++) {
+                orderedMoves[i] = new OrderedMoves<>();
+            }
+        }
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 1;
+        }
+    }
+
+    /**
+     * Order the moves of a node.<br/>
+     * The returned iterator is reused by the next node searched at the same ply.
+     * @param ia the engine providing move ids
+     * @param moves the moves to order
+     * @param ply the ply of the node
+     * @param hashMove the id of the best move stored in the transposition table or -1
+     * @return the moves in search order
+     */
+    Iterator<M> order(final Negamax<M> ia, final Iterable<M> moves, final int ply, final int hashMove) {
+        OrderedMoves<M> ordered = orderedMoves[ply];
+        ordered.size = 0;
+        ordered.cursor = 0;
+        int previous = ply > 0 ? playedMoves[ply - 1] : NONE;
+        int counter = previous != NONE ? counterMoves[previous] : NONE;
+        int pvMove = onPV[ply] ? pvMoves[ply] : NONE;
+        for (M move : moves) {
+            long score;
+            boolean quiet = ia.isQuietMove(move);
+            int id = ia.getMoveId(move);
+            if (id == pvMove && id != NONE) {
+                score = PV_SCORE;
+            } else if (id == hashMove && id != NONE) {
+                score = HASH_SCORE;
+            } else if (!quiet) {
+                score = NOISY_SCORE;
+            } else {
+                if (id == killers[ply * 2]) {
+                    score = KILLER_SCORE + 1;
+                } else if (id == killers[ply * 2 + 1]) {
+                    score = KILLER_SCORE;
+                } else if (id == counter) {
+                    score = COUNTER_SCORE;
+                } else {
+                    score = history[id];
+                }
+            }
+            ordered.add(move, id, score);
+        }
+        return ordered;
+    }
+
+    /**
+     * The id of the move last returned by the iterator of the given ply.
+     * @param ply the ply of the node
+     * @return the id of the move
+     */
+    int id(final int ply) {
+        OrderedMoves<M> ordered = orderedMoves[ply];
+        return ordered.ids[ordered.cursor - 1];
+    }
+
+    /**
+     * Record the move played at the given ply.
+     * @param ply the ply of the node
+     * @param id the id of the played move
+     */
+    void play(final int ply, final int id) {
+        playedMoves[ply] = id;
+        onPV[ply + 1] = onPV[ply] && id == pvMoves[ply];
+    }
+
+    /**
+     * Record a pass or a null move at the given ply.<br/>
+     * The next ply has no counter move and leaves the principal variation.
+     * @param ply the ply of the node
+     */
+    void pass(final int ply) {
+        playedMoves[ply] = NONE;
+        onPV[ply + 1] = false;
+    }
+
+    /**
+     * Record the principal variation of the last search
+     * so that the next search explores it first.
+     * @param ia the engine providing move ids
+     * @param pv the principal variation of the last search
+     */
+    void follow(final Negamax<M> ia, final PrincipalVariation<M> pv) {
+        Arrays.fill(pvMoves, NONE);
+        for (int i = 0; i < pv.length() && i < pvMoves.length; i++) {
+            M move = pv.get(i);
+            pvMoves[i] = move != null ? ia.getMoveId(move) : NONE;
+        }
+        onPV[0] = true;
+    }
+
+    /**
+     * Record a quiet move causing a beta cutoff.
+     * @param ply the ply of the node
+     * @param depth the remaining depth of the node
+     * @param id the id of the move
+     */
+    void cutoff(final int ply, final int depth, final int id) {
+        if (killers[ply * 2] != id) {
+            killers[ply * 2 + 1] = killers[ply * 2];
+            killers[ply * 2] = id;
+        }
+        if (ply > 0 && playedMoves[ply - 1] != NONE) {
+            counterMoves[playedMoves[ply - 1]] = id;
+        }
+        history[id] += depth * depth;
+        if (history[id] >= HISTORY_MAX) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Reusable buffer of moves sorted by descending score.
+     */
+    private static final class OrderedMoves<M extends Move> implements Iterator<M> {
+
+        private Object[] moves = new Object[16];
+        private int[] ids = new int[16];
+        private long[] scores = new long[16];
+        private int size;
+        private int cursor;
+
+        private void add(final M move, final int id, final long score) {
+            if (size == moves.length) {
+                moves = Arrays.copyOf(moves, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            // stable insertion sort
+            int i = size++;
+            while (i > 0 && scores[i - 1] < score) {
+                moves[i] = moves[i - 1];
+                ids[i] = ids[i - 1];
+                scores[i] = scores[i - 1];
+                i--;
+            }
+            moves[i] = move;
+            ids[i] = id;
+            scores[i] = score;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public M next() {
+            if (cursor == size) {
+                throw new NoSuchElementException();
+            }
+            M move = (M) moves[cursor];
+            moves[cursor++] = null;
+            return move;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.impl;
+
+import fr.avianey.minimax4j.Move;
+
+/**
+ * Principal Variation Search (NegaScout) based implementation.
+ *
+ * <pre>
+ * function pvs(node, depth, &#945;, &#946;, color)
+ *     if depth = 0 or node is a terminal node
+ *         return color * the heuristic value of node
+ *     for each child of node
+ *         if child is first child
+ *             score := -pvs(child, depth - 1, -&#946;, -&#945;, -color)
+ *         else
+ *             score := -pvs(child, depth - 1, -&#945; - 1, -&#945;, -color) (* search with a null window *)
+ *             if &#945; < score < &#946;
+ *                 score := -pvs(child, depth - 1, -&#946;, -score, -color) (* if it failed high, do a full re-search *)
+ *         &#945; := max(&#945;, score)
+ *         if &#945; >= &#946;
+ *             break (* beta cut-off *)
+ *     return &#945;
+ * </pre>
+ *
+ * NegaScout assumes the eldest brother is the best move and only proves that its younger brothers
+ * are worse, with zero window searches that prune much more than the full window searches of {@link Negamax}.
+ * A younger brother that turns out to be better is searched twice, thus {@link #getPossibleMoves()}
+ * SHOULD return the most promising moves first : the better the ordering, the fewer the re-searches.
+ * When moves are poorly ordered, younger brothers often fail high and re-searches may cost more
+ * than zero windows save.<br/>
+ * The re-search window starts at the score returned by the zero window search, which is a lower bound.
+ *
+ * @author antoine vianey
+ *
+ * @param <M> Implementation of the Move interface to use
+ * @see #getZeroWindowWidth()
+ */
+public abstract class NegaScout<M extends Move> extends Negamax<M> {
+
+    @Override
+    protected double searchMove(final int index, final int depth, final double alpha, final double beta) {
+        if (index == 0) {
+            return super.searchMove(index, depth, alpha, beta);
+        }
+        double score = -negamax(null, depth, -alpha - getZeroWindowWidth(), -alpha);
+        if (score > alpha && score < beta && !isAborted()) {
+            // fail high : the score is a lower bound
+            score = -negamax(null, depth, -beta, -score);
+        }
+        return score;
+    }
+
+}
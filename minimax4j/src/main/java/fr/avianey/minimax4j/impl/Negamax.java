@@ -28,10 +28,13 @@ package fr.avianey.minimax4j.impl;
 
 import fr.avianey.minimax4j.IA;
 import fr.avianey.minimax4j.Move;
+import fr.avianey.minimax4j.Outcome;
+import fr.avianey.minimax4j.tablebase.Tablebase;
 
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static fr.avianey.minimax4j.IAUtils.iterableToSortedList;
 
@@ -61,7 +64,9 @@ import static fr.avianey.minimax4j.IAUtils.iterableToSortedList;
  * rootMinimaxValue := -rootNegamaxValue
  * </pre>
  *
- * This implementation use alpha-beta cut-offs.
+ * This implementation use fail-soft alpha-beta cut-offs.<br/>
+ * Searches can be bounded either by depth with {@link #getBestMoves(int, Iterable)} or by time
+ * with {@link #getBestMovesWithin(long, TimeUnit)} which performs an iterative deepening search.
  *
  * @author antoine vianey
  *
@@ -69,44 +74,885 @@ import static fr.avianey.minimax4j.IAUtils.iterableToSortedList;
  */
 public abstract class Negamax<M extends Move> implements IA<M> {
 
+    private long deadline;
+    private boolean timed;
+    private volatile boolean aborted;
+    private int completedDepth;
+    private double lastScore = Double.NaN;
+    private long aspirationResearches;
+    private long nullMoveCutoffs;
+    private long lateMoveReductions;
+    private long lateMoveResearches;
+    private long futilityPrunes;
+    private long razoringPrunes;
+    private long tablebaseHits;
+    private boolean nullMove;
+
+    /**
+     * The id of the move to search first in the next searched node or -1,
+     * set by engines storing best moves in a transposition table.
+     */
+    int hashMove = -1;
+    private int ply;
+
+    /**
+     * The number of root moves to get exact values for.
+     * Root searches MUST use a full window when greater than 1.
+     */
+    int multiPV = 1;
+    private MoveOrdering<M> moveOrdering;
+    private final PrincipalVariation<M> pv = new PrincipalVariation<>();
+    private List<M> principalVariation = Collections.emptyList();
+
+    /**
+     * Set when a search reaches a non terminal position at depth 0.
+     * Iterative deepening stops as soon as an iteration completes without hitting the horizon.
+     */
+    boolean horizonReached;
+
+    /**
+     * Get {@link Move} evaluations at the given search depth around the score of the previous search.
+     * @param depth The search depth (must be > 0)
+     * @param possibleMoves The list of possible moves
+     * @return The list of possible moves in descending evaluation order (best first),
+     *          see {@link #getBestMoves(int, double, Iterable)} for the meaning of their values
+     */
     public List<M> getBestMoves(final int depth, Iterable<M> possibleMoves) {
+        return getBestMoves(depth, lastScore, possibleMoves);
+    }
+
+    /**
+     * Get {@link Move} evaluations at the given search depth around the expected score.<br/>
+     * When {@link #getAspirationWindow()} is positive, the search starts with a narrow window
+     * centered on the expected score and is widened only when the score falls outside of it.
+     * {@link #getBestMoves(int, Iterable)} uses the score of the previous search as expected score,
+     * which fits iterative deepening but not engines playing both sides.<br/>
+     * Cutoffs are fail-soft : the {@link Move#value} of the best move is exact while the other moves
+     * only get an upper bound of their value. Those bounds are not clamped to the search window :
+     * a move refuted by a cutoff gets the score that refuted it, which may lie far below the window.
+     * Callers MUST NOT rely on values of moves other than the best one being exact or
+     * within the search window.
+     * @param depth The search depth (must be > 0)
+     * @param expectedScore The expected score of the current position for the current player or {@link Double#NaN} if unknown
+     * @param possibleMoves The list of possible moves
+     * @return The list of possible moves in descending evaluation order (best first),
+     *          the best move having an exact value and the others upper bounds of their value
+     */
+    public List<M> getBestMoves(final int depth, final double expectedScore, Iterable<M> possibleMoves) {
         if (depth <= 0) {
             throw new IllegalArgumentException("Search depth MUST be > 0");
         }
+        if (getMoveIdCount() > 0) {
+            if (moveOrdering == null) {
+                moveOrdering = new MoveOrdering<>(getMoveIdCount());
+            }
+            moveOrdering.prepare(depth + 1);
+        }
+        pv.prepare(depth + 1);
+        ply = 0;
         List<M> orderedMoves = iterableToSortedList(possibleMoves);
-        negamax(orderedMoves, depth, -maxEvaluateValue(), maxEvaluateValue());
+        double score = search(orderedMoves, depth, expectedScore);
+        if (!aborted) {
+            lastScore = score;
+            principalVariation = principalVariation(orderedMoves, depth);
+            if (moveOrdering != null) {
+                // search the principal variation first next time
+                moveOrdering.follow(this, pv);
+            }
+        }
         Collections.sort(orderedMoves);
         return orderedMoves;
     }
 
+    /**
+     * Get {@link Move} evaluations at the given search depth with exact values for the best moves.<br/>
+     * A regular search only gives the exact value of the best move : once alpha is raised by the best move,
+     * other moves only get an upper bound of their value. This multi-PV search raises alpha at the root
+     * to the value of the count-th best move only, so that the values of the count best moves are exact
+     * while the other moves still benefit from cutoffs.
+     * @param depth The search depth (must be > 0)
+     * @param count The number of moves to get exact values for (must be > 0)
+     * @param possibleMoves The list of possible moves
+     * @return The list of possible moves in descending evaluation order (best first),
+     *          the first count moves having exact values and the others upper bounds
+     */
+    public List<M> getTopMoves(final int depth, final int count, Iterable<M> possibleMoves) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Move count MUST be > 0");
+        }
+        multiPV = count;
+        try {
+            return getBestMoves(depth, possibleMoves);
+        } finally {
+            multiPV = 1;
+        }
+    }
+
+    /**
+     * Search the root moves around the expected score.<br/>
+     * Use aspiration windows if {@link #getAspirationWindow()} is positive and the expected score is known,
+     * a full window search otherwise.
+     * @param orderedMoves the root moves in search order
+     * @param depth the search depth
+     * @param expectedScore the expected score of the root position or {@link Double#NaN} if unknown
+     * @return the score of the root position
+     */
+    protected double search(final List<M> orderedMoves, final int depth, final double expectedScore) {
+        final double max = maxEvaluateValue();
+        double delta = getAspirationWindow();
+        if (delta <= 0 || Double.isNaN(expectedScore) || multiPV > 1) {
+            return searchRoot(orderedMoves, depth, -max, max);
+        }
+        double alpha = Math.max(expectedScore - delta, -max);
+        double beta = Math.min(expectedScore + delta, max);
+        while (true) {
+            double score = searchRoot(orderedMoves, depth, alpha, beta);
+            if (aborted) {
+                return score;
+            }
+            if (score <= alpha && alpha > -max) {
+                // fail low
+                delta *= 2;
+                alpha = Math.max(score - delta, -max);
+            } else if (score >= beta && beta < max) {
+                // fail high
+                delta *= 2;
+                beta = Math.min(score + delta, max);
+            } else {
+                return score;
+            }
+            aspirationResearches++;
+        }
+    }
+
+    /**
+     * Search the root moves within the given window and set their {@link Move#value}.
+     * @param orderedMoves the root moves in search order
+     * @param depth the search depth
+     * @param alpha the lower bound of the search window
+     * @param beta the upper bound of the search window
+     * @return the score of the root position
+     */
+    protected double searchRoot(final List<M> orderedMoves, final int depth, final double alpha, final double beta) {
+        return negamax(orderedMoves, depth, alpha, beta);
+    }
+
+    /**
+     * Get the best {@link Move} using an iterative deepening search bounded by the given time budget.
+     * @param timeBudget the maximum time to spend searching
+     * @param unit the unit of the time budget
+     * @return The list of possible moves in descending evaluation order (best first)
+     * @see #getBestMovesUntil(long, int, Iterable)
+     */
+    public List<M> getBestMovesWithin(final long timeBudget, final TimeUnit unit) {
+        return getBestMovesWithin(timeBudget, unit, Integer.MAX_VALUE, getPossibleMoves());
+    }
+
+    /**
+     * Get the best {@link Move} using an iterative deepening search bounded by the given time budget.
+     * @param timeBudget the maximum time to spend searching
+     * @param unit the unit of the time budget
+     * @param maxDepth the maximum search depth (must be > 0)
+     * @param possibleMoves The list of possible moves
+     * @return The list of possible moves in descending evaluation order (best first)
+     * @see #getBestMovesUntil(long, int, Iterable)
+     */
+    public List<M> getBestMovesWithin(final long timeBudget, final TimeUnit unit, final int maxDepth, Iterable<M> possibleMoves) {
+        return getBestMovesUntil(System.nanoTime() + unit.toNanos(timeBudget), maxDepth, possibleMoves);
+    }
+
+    /**
+     * Get the best {@link Move} using an iterative deepening search.<br/>
+     * Searches depth 1, 2, 3... each iteration exploring the root moves in the order given by the
+     * previous iteration to maximize cutoffs. The search at depth 1 always completes, deeper iterations
+     * are aborted as soon as the deadline is reached and the result of the deepest completed iteration
+     * is returned.
+     * @param deadline the deadline as given by {@link System#nanoTime()}
+     * @param maxDepth the maximum search depth (must be > 0)
+     * @param possibleMoves The list of possible moves
+     * @return The list of possible moves in descending evaluation order (best first)
+     * @see #getCompletedDepth()
+     */
+    public List<M> getBestMovesUntil(final long deadline, final int maxDepth, Iterable<M> possibleMoves) {
+        return getBestMovesUntil(deadline, 1, maxDepth, possibleMoves);
+    }
+
+    /**
+     * Get the best {@link Move} using an iterative deepening search starting at the given depth.
+     * The search at the starting depth always completes.
+     * @param deadline the deadline as given by {@link System#nanoTime()}
+     * @param minDepth the starting search depth (must be > 0)
+     * @param maxDepth the maximum search depth (must be >= minDepth)
+     * @param possibleMoves The list of possible moves
+     * @return The list of possible moves in descending evaluation order (best first)
+     */
+    List<M> getBestMovesUntil(final long deadline, final int minDepth, final int maxDepth, Iterable<M> possibleMoves) {
+        if (minDepth <= 0 || maxDepth < minDepth) {
+            throw new IllegalArgumentException("Search depth MUST be > 0");
+        }
+        horizonReached = false;
+        List<M> bestMoves = getBestMoves(minDepth, possibleMoves);
+        completedDepth = minDepth;
+        double[] values = new double[bestMoves.size()];
+        this.deadline = deadline;
+        this.timed = true;
+        try {
+            for (int depth = minDepth + 1; depth <= maxDepth && horizonReached && System.nanoTime() - deadline < 0; depth++) {
+                if (depth < maxDepth && isIterationSkipped(depth)) {
+                    continue;
+                }
+                // keep values of the last completed iteration
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = bestMoves.get(i).value;
+                }
+                horizonReached = false;
+                List<M> moves = getBestMoves(depth, bestMoves);
+                if (aborted) {
+                    // discard the incomplete iteration
+                    for (int i = 0; i < values.length; i++) {
+                        bestMoves.get(i).value = values[i];
+                    }
+                    break;
+                }
+                bestMoves = moves;
+                completedDepth = depth;
+            }
+        } finally {
+            this.timed = false;
+            this.aborted = false;
+        }
+        return bestMoves;
+    }
+
+    /**
+     * Tell whether an iteration of an iterative deepening search is skipped.<br/>
+     * The starting and the last iterations are never skipped.
+     * @param depth the depth of the iteration
+     * @return true to go straight to the next iteration
+     */
+    boolean isIterationSkipped(final int depth) {
+        return false;
+    }
+
+    /**
+     * The depth of the last completed iteration of an iterative deepening search.
+     * @return the depth reached by the last call to {@link #getBestMovesUntil(long, int, Iterable)}
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * The principal variation of the last completed search.<br/>
+     * The expected line of play from the root position : the best move followed by the best reply
+     * and so on, null moves standing for passes. The line stops early when the value of a node
+     * comes from the evaluation function, a quiescence search, a pruning or a transposition.
+     * @return the principal variation, best move first
+     */
+    public List<M> getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    /**
+     * The number of re-searches caused by scores falling outside of the aspiration window.
+     * @return the number of aspiration re-searches since the last call to {@link #resetStatistics()}
+     */
+    public long getAspirationResearches() {
+        return aspirationResearches;
+    }
+
+    /**
+     * The number of nodes pruned by null move pruning.
+     * @return the number of null move cutoffs since the last call to {@link #resetStatistics()}
+     */
+    public long getNullMoveCutoffs() {
+        return nullMoveCutoffs;
+    }
+
+    /**
+     * The number of moves searched with a reduced depth by late move reductions.
+     * @return the number of late move reductions since the last call to {@link #resetStatistics()}
+     */
+    public long getLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    /**
+     * The number of reduced moves that had to be searched again at full depth.
+     * @return the number of late move re-searches since the last call to {@link #resetStatistics()}
+     */
+    public long getLateMoveResearches() {
+        return lateMoveResearches;
+    }
+
+    /**
+     * The number of moves skipped by futility pruning.
+     * @return the number of futility prunes since the last call to {@link #resetStatistics()}
+     */
+    public long getFutilityPrunes() {
+        return futilityPrunes;
+    }
+
+    /**
+     * The number of nodes resolved by a quiescence search instead of a full depth search.
+     * @return the number of razoring prunes since the last call to {@link #resetStatistics()}
+     */
+    public long getRazoringPrunes() {
+        return razoringPrunes;
+    }
+
+    /**
+     * The number of nodes resolved by a tablebase lookup.
+     * @return the number of tablebase hits since the last call to {@link #resetStatistics()}
+     */
+    public long getTablebaseHits() {
+        return tablebaseHits;
+    }
+
+    /**
+     * Reset search statistics.
+     */
+    public void resetStatistics() {
+        aspirationResearches = 0;
+        nullMoveCutoffs = 0;
+        lateMoveReductions = 0;
+        lateMoveResearches = 0;
+        futilityPrunes = 0;
+        razoringPrunes = 0;
+        tablebaseHits = 0;
+    }
+
+    /**
+     * Tell whether the current search has been aborted because its deadline is reached.
+     * Values returned by {@link #negamax(Iterable, int, double, double)} are meaningless once aborted.
+     * @return true if the current search has been aborted
+     */
+    protected final boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * Abort the current time bounded search from another thread.
+     */
+    void abort() {
+        aborted = true;
+    }
+
     protected double negamax(Iterable<M> initialMoves, final int depth, double alpha, double beta) {
+        int hashMove = this.hashMove;
+        this.hashMove = -1;
+        Tablebase tablebase = initialMoves == null && isTablebaseProbed(depth) ? getTablebase() : null;
+        if (tablebase != null) {
+            Outcome outcome = tablebase.probe(getTablebaseIndex());
+            if (outcome != Outcome.UNKNOWN) {
+                // perfect play result
+                tablebaseHits++;
+                return getTablebaseScore(outcome, ply);
+            }
+        }
         if (depth == 0 || isOver()) {
+            if (depth == 0) {
+                if (!horizonReached && !isOver()) {
+                    horizonReached = true;
+                }
+                return quiesce(alpha, beta);
+            }
             return evaluate();
         }
-        Iterator<M> moves = (initialMoves != null ? initialMoves : getPossibleMoves()).iterator();
+        if (timed && (aborted || System.nanoTime() - deadline >= 0)) {
+            aborted = true;
+            return alpha;
+        }
+        if (initialMoves != null) {
+            pv.clear(ply);
+        }
+        boolean afterNullMove = nullMove;
+        nullMove = false;
+        double staticEvaluation = Double.NaN;
+        double razoringMargin = getRazoringMargin(depth);
+        if (initialMoves == null && razoringMargin != Double.POSITIVE_INFINITY) {
+            staticEvaluation = evaluate();
+            if (staticEvaluation + razoringMargin <= alpha) {
+                // razoring :
+                // the position looks hopeless,
+                // verify it with a quiescence search
+                horizonReached = true;
+                double score = quiesce(alpha, alpha + getZeroWindowWidth());
+                if (score <= alpha) {
+                    razoringPrunes++;
+                    return score;
+                }
+            }
+        }
+        int nullMoveReduction = getNullMoveReduction();
+        if (nullMoveReduction > 0 && initialMoves == null && !afterNullMove
+                && depth >= getNullMoveMinDepth() && beta < maxEvaluateValue() && isNullMoveAllowed()) {
+            // null move pruning :
+            // pass and search with a reduced depth,
+            // if the opponent still can't reach beta
+            // the position is too good to be searched
+            next();
+            pass();
+            nullMove = true;
+            double score = -negamax(null, Math.max(depth - 1 - nullMoveReduction, 0), -beta, -beta + getZeroWindowWidth());
+            nullMove = false;
+            ply--;
+            previous();
+            if (aborted) {
+                return alpha;
+            }
+            if (score >= beta) {
+                nullMoveCutoffs++;
+                return score;
+            }
+        }
+        Iterator<M> moves;
+        if (initialMoves != null) {
+            moves = initialMoves.iterator();
+        } else if (moveOrdering != null) {
+            moves = moveOrdering.order(this, getPossibleMoves(), ply, hashMove);
+        } else {
+            moves = getPossibleMoves().iterator();
+        }
         if (!moves.hasNext()) {
         	next();
+        	pass();
         	double score = -negamax(null, depth - 1, -beta, -alpha);
+        	ply--;
         	previous();
+        	pv.update(ply, null, pv);
         	return score;
         }
+        double futilityValue = Double.POSITIVE_INFINITY;
+        double futilityMargin = getFutilityMargin(depth);
+        if (initialMoves == null && futilityMargin != Double.POSITIVE_INFINITY) {
+            if (Double.isNaN(staticEvaluation)) {
+                staticEvaluation = evaluate();
+            }
+            futilityValue = staticEvaluation + futilityMargin;
+        }
         double score;
+        double bestScore = -maxEvaluateValue();
+        // best root values in multi-PV mode
+        double[] topScores = initialMoves != null && multiPV > 1 ? new double[multiPV] : null;
+        int topCount = 0;
+        int index = 0;
         while (moves.hasNext()) {
             M move = moves.next();
-            makeMove(move);
-            score = -negamax(null, depth - 1, -beta, -alpha);
+            int reduction = initialMoves == null && index > 0 ? getLateMoveReduction(depth, index) : 0;
+            boolean futile = index > 0 && futilityValue <= alpha;
+            boolean quiet = (reduction > 0 || futile || moveOrdering != null) && isQuietMove(move);
+            if (futile && quiet) {
+                // futility pruning :
+                // quiet moves can't raise alpha
+                futilityPrunes++;
+                if (futilityValue > bestScore) {
+                    bestScore = futilityValue;
+                }
+                continue;
+            }
+            int moveId;
+            if (moveOrdering == null) {
+                moveId = -1;
+            } else if (initialMoves == null) {
+                // already mapped when ordering the moves
+                moveId = moveOrdering.id(ply);
+            } else {
+                moveId = getMoveId(move);
+            }
+            if (reduction > 0 && quiet) {
+                // late move reduction :
+                // search late quiet moves with a reduced depth and a zero window
+                // and re-search at full depth when they beat alpha
+                lateMoveReductions++;
+                makeMove(move);
+                play(moveId);
+                score = -negamax(null, Math.max(depth - 1 - reduction, 0), -alpha - getZeroWindowWidth(), -alpha);
+                if (score > alpha && !aborted) {
+                    lateMoveResearches++;
+                    score = searchMove(index, depth - 1, alpha, beta);
+                }
+            } else {
+                makeMove(move);
+                play(moveId);
+                score = searchMove(index, depth - 1, alpha, beta);
+            }
+            ply--;
             unmakeMove(move);
+            index++;
+            if (aborted) {
+                return alpha;
+            }
             if (initialMoves != null) {
                 move.value = score;
             }
-            if (score > alpha) {
-                alpha = score;
-                if (alpha >= beta) {
-                    break;
+            if (topScores != null) {
+                // raise alpha to the value of the multiPV-th best move only
+                if (topCount < multiPV || score > topScores[multiPV - 1]) {
+                    int i = topCount < multiPV ? topCount++ : multiPV - 1;
+                    while (i > 0 && topScores[i - 1] < score) {
+                        topScores[i] = topScores[i - 1];
+                        i--;
+                    }
+                    topScores[i] = score;
+                }
+                if (score > bestScore) {
+                    bestScore = score;
+                    pv.update(ply, move, pv);
+                }
+                if (topCount == multiPV && topScores[multiPV - 1] > alpha) {
+                    alpha = topScores[multiPV - 1];
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+                continue;
+            }
+            if (score > bestScore) {
+                // fail-soft : return the best score
+                // even if out of the window
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    pv.update(ply, move, pv);
+                    if (alpha >= beta) {
+                        if (quiet && moveOrdering != null) {
+                            moveOrdering.cutoff(ply, depth, moveId);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Extract the principal variation of the search that just completed.
+     * @param orderedMoves the root moves in search order
+     * @param depth the search depth
+     * @return the principal variation, best move first
+     */
+    List<M> principalVariation(final List<M> orderedMoves, final int depth) {
+        return pv.toList();
+    }
+
+    /**
+     * The id of the best move of the node searched last at the current ply.
+     * @return the id of the move that raised alpha or -1 if unknown or move ids are not provided
+     */
+    int getBestMoveId() {
+        M move = moveOrdering != null ? pv.first(ply) : null;
+        return move != null ? getMoveId(move) : -1;
+    }
+
+    /**
+     * Record the id of the move played at the current ply and go one ply deeper.
+     * @param moveId the id of the played move or -1 if move ids are not provided
+     */
+    private void play(final int moveId) {
+        if (moveOrdering != null) {
+            moveOrdering.play(ply, moveId);
+        }
+        ply++;
+        // the child may return without being searched
+        pv.clear(ply);
+    }
+
+    /**
+     * Go one ply deeper without playing any move.
+     */
+    private void pass() {
+        if (moveOrdering != null) {
+            moveOrdering.pass(ply);
+        }
+        ply++;
+        pv.clear(ply);
+    }
+
+    /**
+     * Quiescence search performed at the horizon of the main search.<br/>
+     * Only the moves returned by {@link #getQuiescenceMoves()} are searched, until the position is quiet,
+     * so that leaf evaluations are not spoiled by the horizon effect. The player to move can always
+     * <i>stand pat</i> and accept {@link #evaluateStandPat()} as a lower bound of the position.
+     * @param alpha the lower bound of the search window
+     * @param beta the upper bound of the search window
+     * @return the quiet score of the position
+     */
+    protected double quiesce(double alpha, final double beta) {
+        Iterable<M> noisyMoves = getQuiescenceMoves();
+        if (noisyMoves == null || isOver()) {
+            return evaluate();
+        }
+        double standPat = evaluateStandPat();
+        if (standPat >= beta) {
+            return standPat;
+        }
+        if (standPat + getDeltaMargin() <= alpha) {
+            // delta pruning :
+            // even the best noisy move can't raise alpha
+            return alpha;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+        double score;
+        double bestScore = standPat;
+        for (M move : noisyMoves) {
+            makeMove(move);
+            score = -quiesce(-beta, -alpha);
+            unmakeMove(move);
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
                 }
             }
         }
-        return alpha;
+        return bestScore;
+    }
+
+    /**
+     * List the noisy moves to search at the horizon, such as captures or promotions.<br/>
+     * Noisy moves MUST eventually run out along any line of play for the quiescence search to end.
+     * Override this method to enable the quiescence search.
+     * @return
+     *          The noisy moves of the current player or null to evaluate the position without quiescence search.
+     *          An empty {@link Iterable} means the position is quiet.
+     * @see #quiesce(double, double)
+     */
+    protected Iterable<M> getQuiescenceMoves() {
+        return null;
+    }
+
+    /**
+     * Evaluate the score the current player is guaranteed to get by not playing any noisy move.
+     * Defaults to {@link #evaluate()}.
+     * @return the stand pat score for the current player
+     */
+    protected double evaluateStandPat() {
+        return evaluate();
+    }
+
+    /**
+     * The maximal score a noisy move can gain.<br/>
+     * Quiescence search is skipped for positions where the stand pat score plus this margin
+     * does not reach alpha. Defaults to {@link Double#POSITIVE_INFINITY} (no delta pruning).
+     * @return the delta pruning margin
+     */
+    protected double getDeltaMargin() {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Search the position reached after playing the move at the given index of the parent node.<br/>
+     * Override this method to change the way sibling moves are searched.
+     * @param index the index of the played move among its siblings (0 for the eldest brother)
+     * @param depth the remaining search depth
+     * @param alpha the lower bound of the parent node window
+     * @param beta the upper bound of the parent node window
+     * @return the score of the move for the parent node
+     */
+    protected double searchMove(final int index, final int depth, final double alpha, final double beta) {
+        return -negamax(null, depth, -beta, -alpha);
+    }
+
+    /**
+     * The half width of the initial aspiration window.<br/>
+     * Override this method to return a positive value to enable aspiration windows.
+     * The window is doubled at each re-search.
+     * @return the half width of the aspiration window or 0 to search with a full window
+     * @see #getBestMoves(int, double, Iterable)
+     */
+    protected double getAspirationWindow() {
+        return 0;
+    }
+
+    /**
+     * The depth reduction R applied to the null move search.<br/>
+     * Null move pruning lets the current player pass using {@link #next()} and searches the resulting
+     * position with a reduced depth and a zero window, if the score is still greater than beta
+     * the node is pruned. Override this method to return a positive value (usually 2 or 3)
+     * to enable null move pruning. As the same position can then be searched for both players,
+     * the transposition key of a {@link TranspositionNegamax} MUST identify the player to move.
+     * @return the null move depth reduction or 0 to disable null move pruning
+     * @see #getNullMoveMinDepth()
+     * @see #isNullMoveAllowed()
+     */
+    protected int getNullMoveReduction() {
+        return 0;
+    }
+
+    /**
+     * The minimal remaining depth for trying a null move.
+     * Defaults to {@link #getNullMoveReduction()} + 1.
+     * @return the minimal depth for null move pruning
+     */
+    protected int getNullMoveMinDepth() {
+        return getNullMoveReduction() + 1;
+    }
+
+    /**
+     * Tell whether passing is allowed for the current position.<br/>
+     * Null move pruning assumes that passing is worse than the best move. This assumption
+     * fails in zugzwang positions, where any move worsens the position of the current player
+     * (endgames, few pieces left, ...). Override this method to return false for such positions.
+     * @return true if null move pruning can be used for the current position
+     */
+    protected boolean isNullMoveAllowed() {
+        return true;
+    }
+
+    /**
+     * The depth reduction applied to a late move.<br/>
+     * With a good move ordering, moves coming late in {@link #getPossibleMoves()} rarely raise alpha.
+     * Quiet moves for which this method returns a positive value are first searched with the reduced
+     * depth and a zero window, and searched again at full depth only if they beat alpha.
+     * Moves of the root node and the first move of each node are never reduced.
+     * Override this method to enable late move reductions, for example :
+     * <pre>
+     * return depth &gt;= 3 &amp;&amp; index &gt;= 3 ? 1 : 0;
+     * </pre>
+     * @param depth the remaining search depth of the node
+     * @param index the index of the move among its siblings
+     * @return the depth reduction or 0 to search the move at full depth
+     * @see #isQuietMove(Move)
+     */
+    protected int getLateMoveReduction(final int depth, final int index) {
+        return 0;
+    }
+
+    /**
+     * Tell whether a move is quiet, i.e. not a capture, a promotion, a check, etc...<br/>
+     * Only quiet moves are reduced by late move reductions, skipped by futility pruning
+     * and ordered by killer moves, counter moves and history heuristic. Defaults to true.
+     * @param move a move of the current player, not played yet
+     * @return true if the move is quiet
+     */
+    protected boolean isQuietMove(M move) {
+        return true;
+    }
+
+    /**
+     * The futility margin for the given remaining depth.<br/>
+     * When the static evaluation of a node plus this margin doesn't reach alpha, the quiet moves
+     * of the node are not searched, except for the first one : they are not expected to raise alpha.
+     * The margin MUST bound the gain of any quiet move sequence of the given depth.
+     * Override this method to return finite margins for small depths (usually 1 and 2)
+     * to enable futility pruning.
+     * @param depth the remaining depth of the node
+     * @return the futility margin or {@link Double#POSITIVE_INFINITY} to disable futility pruning
+     * @see #isQuietMove(Move)
+     */
+    protected double getFutilityMargin(final int depth) {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * The razoring margin for the given remaining depth.<br/>
+     * When the static evaluation of a node plus this margin doesn't reach alpha,
+     * a quiescence search is performed instead and the node is pruned if it confirms the fail low.
+     * Override this method to return finite margins for small depths to enable razoring.
+     * @param depth the remaining depth of the node
+     * @return the razoring margin or {@link Double#POSITIVE_INFINITY} to disable razoring
+     * @see #quiesce(double, double)
+     */
+    protected double getRazoringMargin(final int depth) {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * The number of distinct move ids returned by {@link #getMoveId(Move)}.<br/>
+     * Override this method along with {@link #getMoveId(Move)} to enable the move ordering
+     * by killer moves, history heuristic and counter moves. The ordering tables are primitive
+     * arrays indexed by move id, ids should therefore be compact (for example <code>from * 64 + to</code>).
+     * @return the number of move ids or 0 to disable move ordering
+     */
+    protected int getMoveIdCount() {
+        return 0;
+    }
+
+    /**
+     * A compact identifier of a move, between 0 and {@link #getMoveIdCount()} (excluded).<br/>
+     * Two moves sharing the same id are considered to be the same move by the move ordering,
+     * even when played from different positions.
+     * @param move a move of the current player
+     * @return the id of the move
+     */
+    protected int getMoveId(M move) {
+        return -1;
+    }
+
+    /**
+     * The tablebase holding the perfect play results of endgame positions.<br/>
+     * Positions covered by the tablebase are not searched when {@link #isTablebaseProbed(int)} allows it,
+     * their score is given by {@link #getTablebaseScore(Outcome, int)}. Override this method along with {@link #getTablebaseIndex()}
+     * to enable tablebase lookups.
+     * @return the tablebase or null to disable tablebase lookups
+     * @see fr.avianey.minimax4j.tablebase.TablebaseGenerator
+     */
+    protected Tablebase getTablebase() {
+        return null;
+    }
+
+    /**
+     * Whether the tablebase returned by {@link #getTablebase()} is probed at a node of the given remaining depth.<br/>
+     * This method is called for every node but the root node. The default implementation only probes the nodes
+     * of the horizon (depth 0), where the perfect play result replaces the evaluation of the position.
+     * Override this method to probe interior nodes as well : covered subtrees are then not searched at all,
+     * at the cost of one lookup per node. For example, to probe every node :
+     * <pre>
+     * return true;
+     * </pre>
+     * @param depth the remaining search depth of the node
+     * @return true to probe the tablebase at this node
+     */
+    protected boolean isTablebaseProbed(final int depth) {
+        return depth == 0;
+    }
+
+    /**
+     * The index of the current position in the tablebase returned by {@link #getTablebase()}.
+     * @return the index of the current position or -1 if the position is not covered
+     * @see fr.avianey.minimax4j.tablebase.PositionIndex#getIndex()
+     */
+    protected long getTablebaseIndex() {
+        return -1;
+    }
+
+    /**
+     * The score of a position resolved by the tablebase for the current player.<br/>
+     * The score MUST lie strictly between <code>-maxEvaluateValue()</code> and {@link #maxEvaluateValue()}
+     * as the search relies on these bounds never being returned.
+     * Defaults to <code>maxEvaluateValue() - 1 - ply</code> for a win, its opposite for a loss and 0 for a draw,
+     * so that wins found closer to the root are preferred.
+     * @param outcome the perfect play result of the position
+     * @param ply the distance of the position from the root of the search
+     * @return the score of the position
+     */
+    protected double getTablebaseScore(Outcome outcome, int ply) {
+        switch (outcome) {
+            case WIN:
+                return maxEvaluateValue() - 1 - ply;
+            case LOSS:
+                return -maxEvaluateValue() + 1 + ply;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * The width of the windows used for zero window searches.<br/>
+     * Zero window searches are used to test whether a score is better than a bound.
+     * The default value is suitable for evaluation functions returning integer values,
+     * override this method if scores closer than 1 must be distinguished.
+     * @return a strictly positive window width
+     */
+    protected double getZeroWindowWidth() {
+        return 1;
     }
 
 }
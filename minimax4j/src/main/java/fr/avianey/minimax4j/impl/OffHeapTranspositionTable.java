@@ -0,0 +1,230 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.impl;
+
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * {@link TranspositionTable} stored outside of the Java heap in direct {@link ByteBuffer}s.<br/>
+ * The table neither grows the heap nor the work of the garbage collector, whatever its size.
+ * Entries are aligned on 64 bytes cache lines so that no bucket spans two cache lines,
+ * positions are stored using the {@link ReplacementPolicy#BUCKET} policy unless specified.<br/>
+ * The memory is released by {@link #free()}, after which the table MUST NOT be used anymore.
+ * The keys of a keyed table are referenced from the heap.
+ *
+ * @author antoine vianey
+ */
+public class OffHeapTranspositionTable extends TranspositionTable implements Closeable {
+
+    private static final int MAX_ENTRIES = 1 << 30;
+    private static final int ENTRY_BITS = 4;
+    private static final int CACHE_LINE_BYTES = 64;
+    private static final int CHUNK_BITS = 30;
+    private static final int CHUNK_SLOT_BITS = CHUNK_BITS - ENTRY_BITS;
+    private static final int CHUNK_SLOT_MASK = (1 << CHUNK_SLOT_BITS) - 1;
+
+    private ByteBuffer[] buffers;
+    private ByteBuffer[] chunks;
+
+    /**
+     * Creates a table holding the given number of entries, rounded down to a power of 2.
+     * @param entries the number of entries (must be > 0)
+     */
+    public OffHeapTranspositionTable(final int entries) {
+        this(entries, false);
+    }
+
+    /**
+     * Creates a table holding the given number of entries, rounded down to a power of 2.
+     * @param entries the number of entries (must be > 0)
+     * @param keyed whether the keys of the entries are stored and verified
+     */
+    public OffHeapTranspositionTable(final int entries, final boolean keyed) {
+        this(entries, keyed, ReplacementPolicy.BUCKET);
+    }
+
+    /**
+     * Creates a table holding the given number of entries, rounded down to a power of 2.
+     * @param entries the number of entries (must be > 0)
+     * @param keyed whether the keys of the entries are stored and verified
+     * @param replacementPolicy how positions replace the entries of the table
+     */
+    public OffHeapTranspositionTable(final int entries, final boolean keyed, final ReplacementPolicy replacementPolicy) {
+        super(capacity(entries, MAX_ENTRIES, replacementPolicy), keyed, replacementPolicy);
+        long bytes = (long) size() << ENTRY_BITS;
+        // a buffer can't hold more than 2GB
+        this.buffers = new ByteBuffer[(int) (((bytes - 1) >>> CHUNK_BITS) + 1)];
+        this.chunks = new ByteBuffer[buffers.length];
+        for (int i = 0; i < buffers.length; i++) {
+            int size = (int) Math.min(bytes - ((long) i << CHUNK_BITS), 1L << CHUNK_BITS);
+            buffers[i] = ByteBuffer.allocateDirect(size + CACHE_LINE_BYTES);
+            // align buckets on cache lines
+            int offset = (CACHE_LINE_BYTES - misalignment(buffers[i])) & (CACHE_LINE_BYTES - 1);
+            buffers[i].position(offset).limit(offset + size);
+            chunks[i] = buffers[i].slice().order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Creates a table using at most the given amount of memory outside of the heap.
+     * @param megabytes the size of the table in megabytes (must be > 0)
+     * @param keyed whether the keys of the entries are stored and verified,
+     *              the keys are stored in the heap
+     * @return the table
+     */
+    public static OffHeapTranspositionTable ofMegabytes(final int megabytes, final boolean keyed) {
+        return ofMegabytes(megabytes, keyed, ReplacementPolicy.BUCKET);
+    }
+
+    /**
+     * Creates a table using at most the given amount of memory outside of the heap.
+     * @param megabytes the size of the table in megabytes (must be > 0)
+     * @param keyed whether the keys of the entries are stored and verified,
+     *              the keys are stored in the heap
+     * @param replacementPolicy how positions replace the entries of the table
+     * @return the table
+     */
+    public static OffHeapTranspositionTable ofMegabytes(final int megabytes, final boolean keyed, final ReplacementPolicy replacementPolicy) {
+        if (megabytes <= 0) {
+            throw new IllegalArgumentException("Transposition table size MUST be > 0");
+        }
+        long entries = ((long) megabytes << 20) / ENTRY_BYTES;
+        return new OffHeapTranspositionTable((int) Math.min(entries, Integer.MAX_VALUE), keyed, replacementPolicy);
+    }
+
+    @Override
+    long word(final int slot) {
+        return chunk(slot).getLong((slot & CHUNK_SLOT_MASK) << ENTRY_BITS);
+    }
+
+    @Override
+    long score(final int slot) {
+        return chunk(slot).getLong(((slot & CHUNK_SLOT_MASK) << ENTRY_BITS) + 8);
+    }
+
+    @Override
+    void put(final int slot, final long word, final long score) {
+        ByteBuffer chunk = chunk(slot);
+        int offset = (slot & CHUNK_SLOT_MASK) << ENTRY_BITS;
+        chunk.putLong(offset + 8, score);
+        chunk.putLong(offset, word);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        for (ByteBuffer chunk : chunks()) {
+            for (int i = 0; i < chunk.capacity(); i += 8) {
+                chunk.putLong(i, 0);
+            }
+        }
+    }
+
+    /**
+     * Release the memory of the table.<br/>
+     * When the memory can't be released explicitly by the running JVM,
+     * it is released once the table is garbage collected.
+     */
+    public void free() {
+        ByteBuffer[] buffers = this.buffers;
+        this.chunks = null;
+        this.buffers = null;
+        if (buffers != null) {
+            for (ByteBuffer buffer : buffers) {
+                release(buffer);
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #free()}.
+     */
+    @Override
+    public void close() {
+        free();
+    }
+
+    private ByteBuffer chunk(final int slot) {
+        return chunks()[slot >>> CHUNK_SLOT_BITS];
+    }
+
+    private ByteBuffer[] chunks() {
+        ByteBuffer[] chunks = this.chunks;
+        if (chunks == null) {
+            throw new IllegalStateException("The transposition table has been freed");
+        }
+        return chunks;
+    }
+
+    /**
+     * The distance of the first byte of a direct buffer to the previous cache line.
+     */
+    private static int misalignment(final ByteBuffer buffer) {
+        try {
+            // java 9+
+            Method alignmentOffset = ByteBuffer.class.getMethod("alignmentOffset", int.class, int.class);
+            return (Integer) alignmentOffset.invoke(buffer, 0, CACHE_LINE_BYTES);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // java 8
+        }
+        try {
+            Field address = Buffer.class.getDeclaredField("address");
+            address.setAccessible(true);
+            return (int) (address.getLong(buffer) & (CACHE_LINE_BYTES - 1));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // unknown, assume aligned
+            return 0;
+        }
+    }
+
+    private static void release(final ByteBuffer buffer) {
+        try {
+            // java 9+
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), buffer);
+            return;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // java 8
+        }
+        try {
+            Method cleaner = buffer.getClass().getMethod("cleaner");
+            cleaner.setAccessible(true);
+            Object clean = cleaner.invoke(buffer);
+            clean.getClass().getMethod("clean").invoke(clean);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // released once garbage collected
+        }
+    }
+
+}
@@ -0,0 +1,319 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.impl;
+
+import fr.avianey.minimax4j.Move;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.lang.Runtime.getRuntime;
+
+/**
+ * A {@link MCTS} implementation where several workers grow the same tree concurrently.<br/>
+ * Each worker drives its own copy of the game obtained with {@link #clone()}. Node statistics are updated
+ * with atomic operations and a worker going down the tree counts a visit for each selected node before
+ * its playout is over : this <i>virtual loss</i> makes the other workers explore different branches.<br/>
+ * The tree is preallocated with {@link #getMaxNodes()} nodes, leaves are not expanded anymore once it is full.
+ *
+ * @param <M>  Implementation of the Move interface to use
+ * @author antoine vianey
+ */
+public abstract class ParallelMCTS<M extends Move> extends MCTS<M> implements Cloneable {
+
+    private static final int ROOT = 0;
+
+    private static final int LEAF = 0;
+    private static final int EXPANDING = 1;
+    private static final int EXPANDED = 2;
+    private static final int FULL = 3;
+    private static final int PASS = 4;
+
+    private final ForkJoinPool pool;
+
+    private int[] parent;
+    private int[] firstChild;
+    private int[] childCount;
+    private Object[] moves;
+    private AtomicIntegerArray status;
+    private AtomicIntegerArray visits;
+    private AtomicLongArray rewards;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger iterations = new AtomicInteger();
+
+    /**
+     * Creates a new ParallelMCTS using {@link Runtime#availableProcessors()} for parallelism.
+     */
+    public ParallelMCTS() {
+        this(getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new ParallelMCTS using the given parallelism.
+     * @param parallelism how many workers should be used for computation
+     */
+    public ParallelMCTS(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName() + " MUST use at least one processor.");
+        }
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Creates a new IA sharing the workers of the given instance.<br/>
+     * This constructor SHOULD be used when creating clones.
+     * @param from the instance to clone
+     */
+    protected ParallelMCTS(ParallelMCTS<M> from) {
+        this.pool = from.pool;
+    }
+
+    /**
+     * Creates a copy of the game at its current state, to be driven by a single worker.
+     * @return a copy of this IA
+     */
+    @Override
+    public abstract ParallelMCTS<M> clone();
+
+    @Override
+    List<M> search(final int depth, Iterable<M> possibleMoves, final int iterations, final long deadline, final boolean timed) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Search depth MUST be > 0");
+        }
+        List<M> rootMoves = new ArrayList<>();
+        for (M move : possibleMoves) {
+            rootMoves.add(move);
+        }
+        int capacity = Math.max(getMaxNodes(), rootMoves.size() + 1);
+        if (visits == null || visits.length() != capacity) {
+            parent = new int[capacity];
+            firstChild = new int[capacity];
+            childCount = new int[capacity];
+            moves = new Object[capacity];
+            status = new AtomicIntegerArray(capacity);
+            visits = new AtomicIntegerArray(capacity);
+            rewards = new AtomicLongArray(capacity);
+        } else {
+            Arrays.fill(moves, null);
+        }
+        size.set(0);
+        this.iterations.set(iterations);
+        newNode(-1, null);
+        expand(ROOT, rootMoves);
+        if (childCount[ROOT] > 0) {
+            final int parallelism = pool.getParallelism();
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    List<Worker> workers = new ArrayList<>(parallelism);
+                    for (int i = 0; i < parallelism; i++) {
+                        workers.add(new Worker(ParallelMCTS.this.clone(), depth, deadline, timed));
+                    }
+                    ForkJoinTask.invokeAll(workers);
+                }
+            });
+        }
+        List<M> bestMoves = new ArrayList<>(childCount[ROOT]);
+        for (int child = firstChild[ROOT], end = child + childCount[ROOT]; child < end; child++) {
+            M move = move(child);
+            move.value = visits.get(child);
+            bestMoves.add(move);
+        }
+        Collections.sort(bestMoves);
+        return bestMoves;
+    }
+
+    /**
+     * A worker running iterations on its own copy of the game until the budget is exhausted.
+     */
+    private final class Worker extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ParallelMCTS<M> game;
+        private final int depth;
+        private final long deadline;
+        private final boolean timed;
+        private final List<M> possibleMoves = new ArrayList<>();
+        private int[] path = new int[16];
+
+        private Worker(final ParallelMCTS<M> game, final int depth, final long deadline, final boolean timed) {
+            this.game = game;
+            this.depth = depth;
+            this.deadline = deadline;
+            this.timed = timed;
+        }
+
+        @Override
+        protected void compute() {
+            while (iterations.getAndDecrement() > 0 && (!timed || System.nanoTime() - deadline < 0)) {
+                iterate();
+            }
+        }
+
+        private void iterate() {
+            int node = ROOT;
+            int length = 0;
+            visits.incrementAndGet(ROOT);
+            // selection with virtual loss
+            while (status.get(node) == EXPANDED) {
+                node = select(node);
+                visits.incrementAndGet(node);
+                game.makeMove(move(node));
+                length = push(length, node);
+            }
+            // expansion, by a single worker
+            if (visits.get(node) > 1 && !game.isOver() && status.compareAndSet(node, LEAF, EXPANDING)) {
+                possibleMoves.clear();
+                for (M move : game.getPossibleMoves()) {
+                    possibleMoves.add(move);
+                }
+                if (expand(node, possibleMoves)) {
+                    node = firstChild[node];
+                    visits.incrementAndGet(node);
+                    game.makeMove(move(node));
+                    length = push(length, node);
+                }
+            }
+            // simulation, from the point of view of the player to move at node
+            double reward = game.playout(depth);
+            // backpropagation, visits have already been counted
+            for (int n = node; n != -1; n = parent[n]) {
+                reward = 1 - reward;
+                addReward(n, reward);
+            }
+            while (length > 0) {
+                game.unmakeMove(move(path[--length]));
+            }
+        }
+
+        private int push(final int length, final int node) {
+            if (length == path.length) {
+                path = Arrays.copyOf(path, length * 2);
+            }
+            path[length] = node;
+            return length + 1;
+        }
+    }
+
+    /**
+     * Select the child of the given node maximizing the UCT value.
+     * Unvisited children are selected first.
+     * @param node an expanded node
+     * @return the selected child
+     */
+    private int select(final int node) {
+        final double c = getExplorationConstant();
+        final double logVisits = Math.log(visits.get(node));
+        int best = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int child = firstChild[node], end = child + childCount[node]; child < end; child++) {
+            int n = visits.get(child);
+            if (n == 0) {
+                return child;
+            }
+            double value = Double.longBitsToDouble(rewards.get(child)) / n + c * Math.sqrt(logVisits / n);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Create the children of the given node and publish them.
+     * @param node a node being expanded
+     * @param possibleMoves the moves of the current player
+     * @return false if the tree is full or the current player has to pass
+     */
+    private boolean expand(final int node, final List<M> possibleMoves) {
+        int count = possibleMoves.size();
+        if (count == 0) {
+            // the player to move has to pass :
+            // playouts start from the node like in MCTS
+            status.set(node, PASS);
+            return false;
+        }
+        int first;
+        do {
+            first = size.get();
+            if (first + count > visits.length()) {
+                // don't reserve nodes past the capacity
+                status.set(node, FULL);
+                return false;
+            }
+        } while (!size.compareAndSet(first, first + count));
+        for (int i = 0; i < count; i++) {
+            initNode(first + i, node, possibleMoves.get(i));
+        }
+        firstChild[node] = first;
+        childCount[node] = count;
+        // volatile write : children are visible to workers reading the status
+        status.set(node, EXPANDED);
+        return true;
+    }
+
+    private void newNode(final int parentNode, final M move) {
+        initNode(size.getAndIncrement(), parentNode, move);
+    }
+
+    private void initNode(final int node, final int parentNode, final M move) {
+        parent[node] = parentNode;
+        firstChild[node] = 0;
+        childCount[node] = 0;
+        moves[node] = move;
+        status.set(node, LEAF);
+        visits.set(node, 0);
+        rewards.set(node, 0);
+    }
+
+    private void addReward(final int node, final double reward) {
+        long bits;
+        do {
+            bits = rewards.get(node);
+        } while (!rewards.compareAndSet(node, bits, Double.doubleToRawLongBits(Double.longBitsToDouble(bits) + reward)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private M move(final int node) {
+        return (M) moves[node];
+    }
+
+    @Override
+    public int getNodeCount() {
+        return size.get();
+    }
+}
@@ -32,6 +32,8 @@ import fr.avianey.minimax4j.Move;
 import java.util.*;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import static fr.avianey.minimax4j.IAUtils.iterableToSortedList;
 import static java.lang.Runtime.getRuntime;
@@ -43,8 +45,25 @@ import static java.lang.Runtime.getRuntime;
  * @author antoine vianey
  */
 public abstract class ParallelNegamax<M extends Move> implements IA<M>, Cloneable {
-    
-    private ForkJoinPool pool;
+
+    /**
+     * Let the engine choose the split depth by comparing the cost of searching subtrees to the cost of cloning.
+     * @see #getMinSplitDepth()
+     */
+    public static final int ADAPTIVE_SPLIT_DEPTH = 0;
+
+    /**
+     * Subtrees are searched in parallel when they cost this many times the cost of a clone.
+     */
+    private static final int SPLIT_COST_RATIO = 16;
+
+    private final ForkJoinPool pool;
+    private final Granularity granularity;
+    private double lastScore = Double.NaN;
+    private long aspirationResearches;
+    private final PrincipalVariations<M> pvs;
+    private PrincipalVariation<M> pv;
+    private List<M> principalVariation = Collections.emptyList();
 
     /**
      * Creates a new ParallelNegamax using {@link Runtime#availableProcessors()} for parallelism.
@@ -62,15 +81,21 @@ public abstract class ParallelNegamax<M extends Move> implements IA<M>, Cloneabl
             throw new IllegalArgumentException(this.getClass().getSimpleName() + " MUST use at least one processor.");
         }
         this.pool = new ForkJoinPool(parallelism);
+        this.granularity = new Granularity();
+        this.pvs = new PrincipalVariations<>();
+        this.pv = new PrincipalVariation<>();
     }
     
     /**
-     * Creates a new IA with the same parallelism as the given instance.<br/>
-     * This constructor SHOULD be used when creating clones as it skip {@link ForkJoinPool} configuration.
-     * @param from
+     * Creates a new IA sharing the {@link ForkJoinPool} and the split depth statistics of the given instance.<br/>
+     * This constructor MUST be used when creating clones : each clone takes its own principal variation table
+     * from a pool shared with the given instance, while {@link Object#clone()} would share the table of the given instance.
+     * @param from the instance to clone
      */
     protected ParallelNegamax(ParallelNegamax<M> from) {
-        this(from.pool.getParallelism());
+        this.pool = from.pool;
+        this.granularity = from.granularity;
+        this.pvs = from.pvs;
     }
     
     /**
@@ -80,99 +105,456 @@ public abstract class ParallelNegamax<M extends Move> implements IA<M>, Cloneabl
      * @return The best possible move
      */
     public List<M> getBestMoves(final int depth, Iterable<M> possibleMoves) {
+        return getBestMoves(depth, lastScore, possibleMoves);
+    }
+
+    /**
+     * Get the best {@link Move} for the given search depth around the expected score.<br/>
+     * When {@link #getAspirationWindow()} is positive, the search starts with a narrow window
+     * centered on the expected score and is widened only when the score falls outside of it.
+     * This method SHOULD be called from one thread at the time.
+     * @param depth The search depth (must be > 0)
+     * @param expectedScore The expected score of the current position for the current player or {@link Double#NaN} if unknown
+     * @param possibleMoves The list of possible moves
+     * @return The list of possible moves in descending evaluation order (best first)
+     */
+    public List<M> getBestMoves(final int depth, final double expectedScore, Iterable<M> possibleMoves) {
         if (depth <= 0) {
             throw new IllegalArgumentException("Search depth MUST be > 0");
         }
         List<M> orderedMoves = iterableToSortedList(possibleMoves);
-        pool.invoke(new NegamaxAction<>(this, orderedMoves, null, depth, -maxEvaluateValue(), maxEvaluateValue()));
+        pv.prepare(depth + 1);
+        granularity.prepare(depth + 1);
+        final double max = maxEvaluateValue();
+        double delta = getAspirationWindow();
+        if (delta <= 0 || Double.isNaN(expectedScore)) {
+            lastScore = pool.invoke(new NegamaxAction<>(this, orderedMoves, depth, -max, max));
+        } else {
+            double alpha = Math.max(expectedScore - delta, -max);
+            double beta = Math.min(expectedScore + delta, max);
+            while (true) {
+                double score = pool.invoke(new NegamaxAction<>(this, orderedMoves, depth, alpha, beta));
+                if (score <= alpha && alpha > -max) {
+                    // fail low
+                    delta *= 2;
+                    alpha = Math.max(score - delta, -max);
+                } else if (score >= beta && beta < max) {
+                    // fail high
+                    delta *= 2;
+                    beta = Math.min(score + delta, max);
+                } else {
+                    lastScore = score;
+                    break;
+                }
+                aspirationResearches++;
+            }
+        }
+        principalVariation = pv.toList();
         Collections.sort(orderedMoves);
         return orderedMoves;
     }
+
+    /**
+     * The principal variation of the last search.<br/>
+     * The expected line of play from the root position : the best move followed by the best reply
+     * and so on, null moves standing for passes.
+     * Each subtree exploration task collects its line in the table of its own clone.
+     * @return the principal variation, best move first
+     */
+    public List<M> getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    /**
+     * The minimal remaining depth of the nodes whose younger brothers are searched in parallel.<br/>
+     * Each parallel subtree costs a {@link #clone()} and a task, nodes closer to the leaves are
+     * therefore searched sequentially. Override this method to return a depth greater than 1
+     * when {@link #clone()} is expensive compared to {@link #makeMove(Move)} and {@link #evaluate()},
+     * or {@link #ADAPTIVE_SPLIT_DEPTH} to let the engine measure both costs while searching
+     * and only split nodes whose subtrees cost much more than a clone.
+     * Defaults to 1 : all the nodes are split.
+     * @return the minimal split depth or {@link #ADAPTIVE_SPLIT_DEPTH}
+     * @see #getSplitDepth()
+     */
+    protected int getMinSplitDepth() {
+        return 1;
+    }
+
+    /**
+     * The minimal remaining depth of the nodes searched in parallel by the last search.
+     * @return the split depth, the one chosen by the engine when adaptive,
+     *          or {@link Integer#MAX_VALUE} if no node is worth splitting
+     * @see #getMinSplitDepth()
+     */
+    public int getSplitDepth() {
+        int minSplitDepth = getMinSplitDepth();
+        if (minSplitDepth != ADAPTIVE_SPLIT_DEPTH) {
+            return minSplitDepth;
+        }
+        for (int depth = 1; depth < granularity.subtreeNanos.length(); depth++) {
+            if (granularity.isWorthSplitting(depth)) {
+                return depth;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * The half width of the initial aspiration window.<br/>
+     * Override this method to return a positive value to enable aspiration windows.
+     * The window is doubled at each re-search.
+     * @return the half width of the aspiration window or 0 to search with a full window
+     * @see #getBestMoves(int, double, Iterable)
+     */
+    protected double getAspirationWindow() {
+        return 0;
+    }
+
+    /**
+     * The number of re-searches caused by scores falling outside of the aspiration window.
+     * @return the number of aspiration re-searches since the last call to {@link #resetStatistics()}
+     */
+    public long getAspirationResearches() {
+        return aspirationResearches;
+    }
+
+    /**
+     * Reset search statistics.
+     */
+    public void resetStatistics() {
+        aspirationResearches = 0;
+    }
     
+    /**
+     * Creates a copy of the current position searched by a parallel task.<br/>
+     * Implementations MUST call {@link #ParallelNegamax(ParallelNegamax)} instead of {@link Object#clone()}.
+     * @return a copy of this IA
+     */
     @Override
     public abstract ParallelNegamax<M> clone();
 
+    /**
+     * Running averages of the time spent cloning and searching subtrees by remaining depth,
+     * shared by an engine and its clones.
+     */
+    private static final class Granularity {
+
+        private volatile AtomicLongArray subtreeNanos = new AtomicLongArray(0);
+        private volatile long cloneNanos;
+
+        private void prepare(final int plies) {
+            if (plies > subtreeNanos.length()) {
+                AtomicLongArray nanos = new AtomicLongArray(plies);
+                for (int i = 0; i < subtreeNanos.length(); i++) {
+                    nanos.set(i, subtreeNanos.get(i));
+                }
+                subtreeNanos = nanos;
+            }
+        }
+
+        private void subtree(final int depth, final long nanos) {
+            AtomicLongArray subtrees = subtreeNanos;
+            long average = subtrees.get(depth);
+            subtrees.lazySet(depth, average == 0 ? nanos : average + ((nanos - average) >> 3));
+        }
+
+        private void clone(final long nanos) {
+            long average = cloneNanos;
+            cloneNanos = average == 0 ? nanos : average + ((nanos - average) >> 3);
+        }
+
+        /**
+         * Tell whether the subtrees of a node are worth a clone.
+         * @param depth the remaining depth of the node
+         */
+        private boolean isWorthSplitting(final int depth) {
+            long subtree = subtreeNanos.get(depth - 1);
+            return subtree > 0 && subtree >= SPLIT_COST_RATIO * cloneNanos;
+        }
+    }
+
+    /**
+     * Principal variation tables of the tasks, shared by an engine and its clones.<br/>
+     * Tables are released once their line has been merged into the table of the split point,
+     * so that their rows are reused by the next tasks instead of being allocated for each clone.
+     */
+    private static final class PrincipalVariations<M extends Move> {
+
+        private final ArrayDeque<PrincipalVariation<M>> free = new ArrayDeque<>();
+
+        private synchronized PrincipalVariation<M> acquire() {
+            PrincipalVariation<M> pv = free.poll();
+            return pv != null ? pv : new PrincipalVariation<M>();
+        }
+
+        private synchronized void release(final PrincipalVariation<M> pv) {
+            free.push(pv);
+        }
+    }
+
+    /**
+     * A node whose younger brothers are searched in parallel.<br/>
+     * Brothers share the alpha bound of the node : each brother starts with the best score known so far
+     * and raises it as soon as it completes. Nodes searched below the split point read the bound again
+     * before each move, so that running searches narrow their window as soon as a brother completes.
+     * When a brother causes a cutoff, all the tasks searching below the node are cancelled.
+     */
+    private static final class SplitPoint {
+
+        private final SplitPoint parent;
+        private final int ply;
+        private final double beta;
+        private final AtomicLong alpha;
+        private volatile boolean cutoff;
+
+        private SplitPoint(SplitPoint parent, int ply, double alpha, double beta) {
+            this.parent = parent;
+            this.ply = ply;
+            this.beta = beta;
+            this.alpha = new AtomicLong(Double.doubleToLongBits(alpha));
+        }
+
+        private double alpha() {
+            return Double.longBitsToDouble(alpha.get());
+        }
+
+        private void raise(final double score) {
+            long current;
+            do {
+                current = alpha.get();
+                if (score <= Double.longBitsToDouble(current)) {
+                    return;
+                }
+            } while (!alpha.compareAndSet(current, Double.doubleToLongBits(score)));
+            if (score >= beta) {
+                cutoff = true;
+            }
+        }
+
+        /**
+         * Raise the lower bound of a node below this split point
+         * to the alpha of the split points where the same player is to move.
+         */
+        private double alpha(final int ply, double alpha) {
+            for (SplitPoint splitPoint = this; splitPoint != null; splitPoint = splitPoint.parent) {
+                if (((ply - splitPoint.ply) & 1) == 0) {
+                    alpha = Math.max(alpha, splitPoint.alpha());
+                }
+            }
+            return alpha;
+        }
+
+        /**
+         * Lower the upper bound of a node below this split point
+         * to the opposite of the alpha of the split points where the opponent is to move.
+         */
+        private double beta(final int ply, double beta) {
+            for (SplitPoint splitPoint = this; splitPoint != null; splitPoint = splitPoint.parent) {
+                if (((ply - splitPoint.ply) & 1) == 1) {
+                    beta = Math.min(beta, -splitPoint.alpha());
+                }
+            }
+            return beta;
+        }
+
+        private boolean isCancelled() {
+            for (SplitPoint splitPoint = this; splitPoint != null; splitPoint = splitPoint.parent) {
+                if (splitPoint.cutoff) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
     private static final class NegamaxAction<M extends Move> extends RecursiveTask<Double> {
 
         private static final long serialVersionUID = 1L;
         
         private final List<M> initialMoves;
         private final ParallelNegamax<M> minimax;
+        private final SplitPoint splitPoint;
         private final M move;
+        private final int ply;
         private final int depth;
         private final double alpha;
         private final double beta;
 
-        NegamaxAction(ParallelNegamax<M> minimax, List<M> initialMoves, M move, int depth, double alpha, double beta) {
+        /**
+         * Search the root moves within the given window.
+         */
+        NegamaxAction(ParallelNegamax<M> minimax, List<M> initialMoves, int depth, double alpha, double beta) {
             this.initialMoves = initialMoves;
-            this.move = move;
-            this.depth = depth;
             this.minimax = minimax;
+            this.splitPoint = null;
+            this.move = null;
+            this.ply = 0;
+            this.depth = depth;
             this.alpha = alpha;
             this.beta = beta;
         }
 
+        /**
+         * Search a younger brother of the given split point within the current window of the split point.
+         */
+        NegamaxAction(ParallelNegamax<M> minimax, SplitPoint splitPoint, M move, int ply, int depth) {
+            this.initialMoves = null;
+            this.minimax = minimax;
+            this.splitPoint = splitPoint;
+            this.move = move;
+            this.ply = ply;
+            this.depth = depth;
+            this.alpha = Double.NaN;
+            this.beta = Double.NaN;
+        }
+
         @Override
         protected Double compute() {
-            return negamax(initialMoves, depth, alpha, beta);
+            if (splitPoint == null) {
+                return negamax(initialMoves, ply, depth, alpha, beta);
+            }
+            // use the best score known so far
+            double a = splitPoint.alpha();
+            if (splitPoint.isCancelled()) {
+                return -a;
+            }
+            double score = negamax(null, ply, depth, -splitPoint.beta, -a);
+            if (!splitPoint.isCancelled()) {
+                splitPoint.raise(-score);
+            }
+            return score;
         }
         
-        private double negamax(final Iterable<M> initialMoves, final int depth, double alpha, double beta) {
+        private double negamax(final Iterable<M> initialMoves, final int ply, final int depth, double alpha, double beta) {
+            minimax.pv.clear(ply);
+            if (splitPoint != null && splitPoint.isCancelled()) {
+                // a brother caused a cutoff
+                return alpha;
+            }
             if (depth == 0 || minimax.isOver()) {
                 return minimax.evaluate();
             }
+            if (splitPoint != null) {
+                // brothers of the split points above may have completed meanwhile
+                alpha = splitPoint.alpha(ply, alpha);
+                beta = splitPoint.beta(ply, beta);
+                if (alpha >= beta) {
+                    return alpha;
+                }
+            }
             Iterator<M> moves = (initialMoves != null ? initialMoves : minimax.getPossibleMoves()).iterator();
             if (moves.hasNext()) {
                 // young brother wait
                 // reduce alpha beta window
                 // assume its the best possible move
                 M move = moves.next();
+                int minSplitDepth = minimax.getMinSplitDepth();
+                boolean adaptive = minSplitDepth == ADAPTIVE_SPLIT_DEPTH;
+                long start = adaptive ? System.nanoTime() : 0;
                 minimax.makeMove(move);
-                double score = -negamax(null, depth - 1, -beta, -alpha);
+                double score = -negamax(null, ply + 1, depth - 1, -beta, -alpha);
                 minimax.unmakeMove(move);
+                if (adaptive) {
+                    minimax.granularity.subtree(depth - 1, System.nanoTime() - start);
+                }
                 if (initialMoves != null) {
                     move.value = score;
                 }
                 if (score > alpha) {
                     alpha = score;
+                    minimax.pv.update(ply, move, minimax.pv);
                     if (alpha >= beta) {
                         // cutoff
                         return alpha;
                     }
                 }
-                if (moves.hasNext()) {
+                if (splitPoint != null) {
+                    // brothers of the split points above may have completed meanwhile
+                    alpha = splitPoint.alpha(ply, alpha);
+                    beta = splitPoint.beta(ply, beta);
+                    if (alpha >= beta) {
+                        return alpha;
+                    }
+                }
+                boolean parallel = adaptive ? minimax.granularity.isWorthSplitting(depth) : depth >= minSplitDepth;
+                if (moves.hasNext() && !parallel) {
+                    // search younger brothers sequentially
+                    do {
+                        move = moves.next();
+                        minimax.makeMove(move);
+                        score = -negamax(null, ply + 1, depth - 1, -beta, -alpha);
+                        minimax.unmakeMove(move);
+                        if (initialMoves != null) {
+                            move.value = score;
+                        }
+                        if (score > alpha) {
+                            alpha = score;
+                            minimax.pv.update(ply, move, minimax.pv);
+                            if (alpha >= beta) {
+                                return alpha;
+                            }
+                        }
+                        if (splitPoint != null) {
+                            // narrow the window of the next younger brother
+                            alpha = splitPoint.alpha(ply, alpha);
+                            beta = splitPoint.beta(ply, beta);
+                            if (alpha >= beta) {
+                                return alpha;
+                            }
+                        }
+                    } while (moves.hasNext());
+                } else if (moves.hasNext()) {
+                    SplitPoint split = new SplitPoint(splitPoint, ply, alpha, beta);
                     Collection<NegamaxAction<M>> tasks = new LinkedList<>();
                     do {
                         // create sub tree exploration tasks
                         move = moves.next();
+                        long cloneStart = adaptive ? System.nanoTime() : 0;
                         ParallelNegamax<M> clone = minimax.clone();
+                        if (clone.pv == minimax.pv) {
+                            throw new IllegalStateException(minimax.getClass().getSimpleName() + " MUST be cloned with its copy constructor.");
+                        }
                         clone.makeMove(move);
-                        tasks.add(new NegamaxAction<>(clone, null, move, depth - 1, -beta, -alpha));
+                        if (adaptive) {
+                            minimax.granularity.clone(System.nanoTime() - cloneStart);
+                        }
+                        clone.pv = minimax.pvs.acquire();
+                        clone.pv.prepare(minimax.pv.plies(), ply + 1);
+                        tasks.add(new NegamaxAction<>(clone, split, move, ply + 1, depth - 1));
                     } while (moves.hasNext());
                     // dispatch tasks across workers
                     // and wait for completion...
-                    invokeAll(tasks);
-                    // await termination of all brothers
-                    // once all done alpha == best score
-                    for (NegamaxAction<M> task : tasks) {
-                        score = -task.getRawResult();
-                        if (initialMoves != null) {
-                            task.move.value = score;
+                    try {
+                        invokeAll(tasks);
+                        if (split.cutoff) {
+                            // a task lead to a cutoff...
+                            // other brothers have been cancelled
+                            return split.alpha();
                         }
-                        if (score > alpha) {
-                            alpha = score;
-                            if (alpha >= beta) {
-                                // task lead to a cutoff...
-                                // we don't care of other brothers
-                                break;
+                        // await termination of all brothers
+                        // once all done alpha == best score
+                        for (NegamaxAction<M> task : tasks) {
+                            score = -task.getRawResult();
+                            if (initialMoves != null) {
+                                task.move.value = score;
                             }
+                            if (score > alpha) {
+                                alpha = score;
+                                // copy the line of the task
+                                minimax.pv.update(ply, task.move, task.minimax.pv);
+                            }
+                        }
+                    } finally {
+                        for (NegamaxAction<M> task : tasks) {
+                            minimax.pvs.release(task.minimax.pv);
                         }
                     }
                 }
             } else {
                 minimax.next();
-                alpha = -negamax(null, depth - 1, -beta, -alpha);
+                alpha = -negamax(null, ply + 1, depth - 1, -beta, -alpha);
                 minimax.previous();
+                minimax.pv.update(ply, null, minimax.pv);
             }
             // sub tree done !
             return alpha;
@@ -0,0 +1,150 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.impl;
+
+import fr.avianey.minimax4j.Move;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Triangular principal variation table filled during the search.<br/>
+ * Row <code>ply</code> holds the best line found from the node searched at that ply,
+ * it is built by prepending the best move of the node to the row of its child.
+ * Rows are preallocated for the search depth so that collecting the principal variation
+ * doesn't allocate during the search. A null move in a row stands for a pass.
+ *
+ * @author antoine vianey
+ *
+ * @param <M> Implementation of the Move interface to use
+ */
+final class PrincipalVariation<M extends Move> {
+
+    private Object[][] moves = new Object[0][];
+    private int[] lengths = new int[0];
+    private int plies;
+
+    /**
+     * Make the table large enough for the given number of plies.
+     * @param plies the number of plies of the next search
+     */
+    void prepare(final int plies) {
+        prepare(plies, 0);
+    }
+
+    /**
+     * Make the rows of the table starting from the given ply large enough for the given number of plies.
+     * @param plies the number of plies of the next search
+     * @param from the first ply searched using this table
+     */
+    void prepare(final int plies, final int from) {
+        if (plies > moves.length) {
+            moves = Arrays.copyOf(moves, plies);
+            lengths = Arrays.copyOf(lengths, plies);
+        }
+        for (int i = from; i < plies; i++) {
+            if (moves[i] == null || moves[i].length < plies - i) {
+                moves[i] = new Object[plies - i];
+            }
+        }
+        this.plies = plies;
+    }
+
+    /**
+     * The number of plies of the current search.
+     * @return the number of plies the table has been prepared for
+     */
+    int plies() {
+        return plies;
+    }
+
+    /**
+     * Empty the line of the node searched at the given ply.
+     * @param ply the ply of the node
+     */
+    void clear(final int ply) {
+        lengths[ply] = 0;
+    }
+
+    /**
+     * Set the line of the node searched at the given ply to the given move
+     * followed by the line of the child node.
+     * @param ply the ply of the node
+     * @param move the best move of the node or null for a pass
+     * @param child the table holding the line of the child node
+     */
+    void update(final int ply, final M move, final PrincipalVariation<M> child) {
+        Object[] row = moves[ply];
+        int length = child.lengths[ply + 1];
+        row[0] = move;
+        System.arraycopy(child.moves[ply + 1], 0, row, 1, length);
+        lengths[ply] = length + 1;
+    }
+
+    /**
+     * The best move found so far by the node searched at the given ply.
+     * @param ply the ply of the node
+     * @return the move or null for a pass or when no move raised alpha
+     */
+    @SuppressWarnings("unchecked")
+    M first(final int ply) {
+        return lengths[ply] > 0 ? (M) moves[ply][0] : null;
+    }
+
+    /**
+     * The length of the line found from the root.
+     * @return the number of moves of the principal variation
+     */
+    int length() {
+        return lengths.length > 0 ? lengths[0] : 0;
+    }
+
+    /**
+     * A move of the line found from the root.
+     * @param ply the ply of the move
+     * @return the move or null for a pass
+     */
+    @SuppressWarnings("unchecked")
+    M get(final int ply) {
+        return (M) moves[0][ply];
+    }
+
+    /**
+     * Copy the line found from the root.
+     * @return the principal variation
+     */
+    List<M> toList() {
+        int length = length();
+        List<M> line = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            line.add(get(i));
+        }
+        return Collections.unmodifiableList(line);
+    }
+}
@@ -0,0 +1,414 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.impl;
+
+import fr.avianey.minimax4j.IA;
+import fr.avianey.minimax4j.Move;
+import fr.avianey.minimax4j.Outcome;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Depth-first proof number search (df-pn) solver.<br/>
+ * Unlike depth bounded searches, proof number search returns the game theoretic value of a position by
+ * expanding the most proving nodes first : the nodes which are the cheapest to prove or disprove.
+ * The proof number of a node is the minimal number of leaves to prove for the current player to reach
+ * the target, its disproof number is the minimal number of leaves to disprove it.
+ *
+ * <pre>
+ * function mid(node, thpn, thdn)
+ *     if node is terminal
+ *         (pn, dn) := (0, &#8734;) if the target is reached, (&#8734;, 0) otherwise
+ *         return
+ *     loop
+ *         pn := min dn(child) for each child
+ *         dn := sum pn(child) for each child
+ *         if pn &gt;= thpn or dn &gt;= thdn
+ *             return
+ *         best := child with the smallest dn, dn2 := second smallest dn
+ *         mid(best, thdn - dn + pn(best), min(thpn, dn2 + 1))
+ * </pre>
+ *
+ * Terminal positions are those for which {@link #isOver()}, their result is given by {@link #getResult()}.
+ * A first search proves or disproves a win, then a second search proves a draw or a loss if needed.
+ * Proof and disproof numbers are stored in a bounded table keyed by {@link #getTranspositionKey()}
+ * so that transpositions are not solved twice, entries involving the smallest subtrees are replaced first.
+ *
+ * @author antoine vianey
+ *
+ * @param <M> Implementation of the Move interface to use
+ * @param <K> Transposition key type
+ */
+public abstract class ProofNumberSearch<M extends Move, K> implements IA<M> {
+
+    private static final long INFINITY = Long.MAX_VALUE / 4;
+
+    private static final Comparator<Move> BEST_FIRST = new Comparator<Move>() {
+        @Override
+        public int compare(Move m1, Move m2) {
+            // unsolved moves last
+            if (Double.isNaN(m1.value) || Double.isNaN(m2.value)) {
+                return Double.isNaN(m1.value) ? (Double.isNaN(m2.value) ? 0 : 1) : -1;
+            }
+            return Double.compare(m2.value, m1.value);
+        }
+    };
+
+    private final Object[] keys;
+    private final boolean[] targets;
+    private final long[] proofs;
+    private final long[] disproofs;
+    private final long[] works;
+    private final int mask;
+
+    private Level<M>[] levels = newLevels(0);
+    private long nodes;
+    private long maxNodes;
+    private boolean aborted;
+    private long resultProof;
+    private long resultDisproof;
+
+    /**
+     * Creates a solver with a table of 2<sup>20</sup> entries.
+     */
+    public ProofNumberSearch() {
+        this(1 << 20);
+    }
+
+    /**
+     * Creates a solver with a bounded table.
+     * @param tableSize the number of entries of the table, rounded up to a power of 2
+     */
+    public ProofNumberSearch(final int tableSize) {
+        if (tableSize <= 0) {
+            throw new IllegalArgumentException("Table size MUST be > 0");
+        }
+        int size = Math.max(2, Integer.highestOneBit(tableSize - 1) << 1);
+        keys = new Object[size];
+        targets = new boolean[size];
+        proofs = new long[size];
+        disproofs = new long[size];
+        works = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Solve the current position.
+     * @return the outcome of the position for the current player
+     *          or {@link Outcome#UNKNOWN} if {@link #getMaxNodes()} was not enough
+     */
+    public Outcome solve() {
+        return solve(getPossibleMoves(), null);
+    }
+
+    /**
+     * Solve the given moves.<br/>
+     * The {@link Move#value} of solved moves is set to 1 for a win, 0 for a draw and -1 for a loss,
+     * unsolved moves are returned last.
+     * The depth is not used : proof number search is bounded by {@link #getMaxNodes()}.
+     * @param depth The search depth (must be > 0)
+     * @param possibleMoves The list of possible moves
+     * @return The list of possible moves in descending outcome order (best first)
+     */
+    public List<M> getBestMoves(final int depth, Iterable<M> possibleMoves) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Search depth MUST be > 0");
+        }
+        List<M> moves = new ArrayList<>();
+        solve(possibleMoves, moves);
+        Collections.sort(moves, BEST_FIRST);
+        return moves;
+    }
+
+    private Outcome solve(final Iterable<M> possibleMoves, final List<M> solvedMoves) {
+        if (isOver()) {
+            return getResult();
+        }
+        for (M move : possibleMoves) {
+            move.value = Double.NaN;
+        }
+        Level<M> root = level(0);
+        root.list(possibleMoves);
+        List<M> moves = root.moves.get(0) == null ? Collections.<M>emptyList() : root.moves;
+        long[] childProofs = root.proofs;
+        long[] childDisproofs = root.disproofs;
+        nodes = 0;
+        maxNodes = getMaxNodes();
+        aborted = false;
+        Outcome outcome = Outcome.UNKNOWN;
+        try {
+            // prove a win
+            clearTable();
+            mid(0, INFINITY, INFINITY, true);
+            for (int i = 0; i < moves.size(); i++) {
+                if (childDisproofs[i] == 0) {
+                    moves.get(i).value = 1;
+                }
+            }
+            if (resultProof == 0) {
+                outcome = Outcome.WIN;
+            } else if (resultDisproof == 0) {
+                // prove a draw
+                clearTable();
+                mid(0, INFINITY, INFINITY, false);
+                for (int i = 0; i < moves.size(); i++) {
+                    if (childDisproofs[i] == 0) {
+                        moves.get(i).value = 0;
+                    } else if (childProofs[i] == 0) {
+                        moves.get(i).value = -1;
+                    }
+                }
+                if (resultProof == 0) {
+                    outcome = Outcome.DRAW;
+                } else if (resultDisproof == 0) {
+                    outcome = Outcome.LOSS;
+                }
+            }
+        } finally {
+            aborted = false;
+        }
+        if (solvedMoves != null) {
+            solvedMoves.addAll(moves);
+        }
+        return outcome;
+    }
+
+    /**
+     * Multiple iterative deepening of a node until its proof or disproof number reaches its threshold.
+     * @param depth the distance of the node from the root, its moves being listed in the buffers of this depth
+     * @param proofThreshold the proof number threshold
+     * @param disproofThreshold the disproof number threshold
+     * @param win true to prove a win for the current player, false to prove he doesn't lose
+     */
+    private void mid(final int depth, final long proofThreshold, final long disproofThreshold, final boolean win) {
+        if (++nodes > maxNodes) {
+            aborted = true;
+        }
+        Level<M> level = levels[depth];
+        final List<M> moves = level.moves;
+        final long[] childProofs = level.proofs;
+        final long[] childDisproofs = level.disproofs;
+        K key = getTranspositionKey();
+        long startNodes = nodes;
+        final int n = moves.size();
+        // children values
+        for (int i = 0; i < n; i++) {
+            M move = moves.get(i);
+            play(move);
+            lookup(!win);
+            unplay(move);
+            childProofs[i] = resultProof;
+            childDisproofs[i] = resultDisproof;
+        }
+        long proof;
+        long disproof;
+        while (true) {
+            proof = INFINITY;
+            disproof = 0;
+            int best = -1;
+            long secondDisproof = INFINITY;
+            for (int i = 0; i < n; i++) {
+                if (childDisproofs[i] < proof) {
+                    secondDisproof = proof;
+                    proof = childDisproofs[i];
+                    best = i;
+                } else if (childDisproofs[i] < secondDisproof) {
+                    secondDisproof = childDisproofs[i];
+                }
+                disproof = Math.min(disproof + childProofs[i], INFINITY);
+            }
+            if (proof >= proofThreshold || disproof >= disproofThreshold || aborted) {
+                break;
+            }
+            M move = moves.get(best);
+            long childProofThreshold = disproofThreshold >= INFINITY ? INFINITY : disproofThreshold - disproof + childProofs[best];
+            long childDisproofThreshold = Math.min(proofThreshold, secondDisproof + 1);
+            play(move);
+            level(depth + 1).list(getPossibleMoves());
+            mid(depth + 1, childProofThreshold, childDisproofThreshold, !win);
+            unplay(move);
+            childProofs[best] = resultProof;
+            childDisproofs[best] = resultDisproof;
+        }
+        store(key, win, proof, disproof, nodes - startNodes);
+        resultProof = proof;
+        resultDisproof = disproof;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <M extends Move> Level<M>[] newLevels(final int depth) {
+        return new Level[depth];
+    }
+
+    /**
+     * The buffers of the nodes searched at the given distance from the root,
+     * created the first time a search goes that deep.
+     */
+    private Level<M> level(final int depth) {
+        if (depth == levels.length) {
+            levels = Arrays.copyOf(levels, Math.max(depth * 2, 16));
+            for (int i = depth; i < levels.length; i++) {
+                levels[i] = new Level<>();
+            }
+        }
+        return levels[depth];
+    }
+
+    /**
+     * Reusable buffers of the moves of a node and of the proof and disproof numbers of its children,
+     * one per distance from the root.
+     */
+    private static final class Level<M extends Move> {
+
+        private final List<M> moves = new ArrayList<>();
+        private long[] proofs = new long[16];
+        private long[] disproofs = new long[16];
+
+        /**
+         * List the moves of the current player, a single null move standing for a pass.
+         */
+        private void list(final Iterable<M> possibleMoves) {
+            moves.clear();
+            for (M move : possibleMoves) {
+                moves.add(move);
+            }
+            if (moves.isEmpty()) {
+                moves.add(null);
+            }
+            if (moves.size() > proofs.length) {
+                proofs = new long[moves.size() * 2];
+                disproofs = new long[moves.size() * 2];
+            }
+        }
+    }
+
+    /**
+     * Get the proof and disproof numbers of the current position,
+     * from the table or from the result of terminal positions.
+     * @param win the target of the current player
+     */
+    private void lookup(final boolean win) {
+        if (isOver()) {
+            Outcome result = getResult();
+            if (result == Outcome.WIN || (!win && result == Outcome.DRAW)) {
+                resultProof = 0;
+                resultDisproof = INFINITY;
+            } else {
+                resultProof = INFINITY;
+                resultDisproof = 0;
+            }
+            return;
+        }
+        K key = getTranspositionKey();
+        int index = (key.hashCode() & mask) & ~1;
+        for (int i = index; i < index + 2; i++) {
+            if (keys[i] != null && targets[i] == win && key.equals(keys[i])) {
+                resultProof = proofs[i];
+                resultDisproof = disproofs[i];
+                return;
+            }
+        }
+        resultProof = 1;
+        resultDisproof = 1;
+    }
+
+    private void store(final K key, final boolean win, final long proof, final long disproof, final long work) {
+        int index = (key.hashCode() & mask) & ~1;
+        int slot = works[index] <= works[index + 1] ? index : index + 1;
+        for (int i = index; i < index + 2; i++) {
+            if (keys[i] == null || (targets[i] == win && key.equals(keys[i]))) {
+                slot = i;
+                break;
+            }
+        }
+        keys[slot] = key;
+        targets[slot] = win;
+        proofs[slot] = proof;
+        disproofs[slot] = disproof;
+        works[slot] = work;
+    }
+
+    private void clearTable() {
+        Arrays.fill(keys, null);
+        Arrays.fill(works, 0);
+    }
+
+    private void play(final M move) {
+        if (move == null) {
+            next();
+        } else {
+            makeMove(move);
+        }
+    }
+
+    private void unplay(final M move) {
+        if (move == null) {
+            previous();
+        } else {
+            unmakeMove(move);
+        }
+    }
+
+    /**
+     * The result of a terminal position for the current player.<br/>
+     * Defaults to a win, a draw or a loss according to the sign of {@link #evaluate()}.
+     * @return the outcome of the position for the current player
+     */
+    protected Outcome getResult() {
+        double score = evaluate();
+        return score > 0 ? Outcome.WIN : score < 0 ? Outcome.LOSS : Outcome.DRAW;
+    }
+
+    /**
+     * The maximal number of nodes to expand for solving a position. Defaults to 10<sup>7</sup>.
+     * @return the node budget of a search
+     */
+    protected long getMaxNodes() {
+        return 10000000;
+    }
+
+    /**
+     * The number of nodes expanded by the last search.
+     * @return the number of expanded nodes
+     */
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * Get the key of the current position.<br/>
+     * Like {@link TranspositionNegamax#getTranspositionKey()}, the key MUST identify the position
+     * and the player to move, and implement {@link Object#equals(Object)} and {@link Object#hashCode()}.
+     * @return the transposition key of the current position
+     */
+    public abstract K getTranspositionKey();
+
+}
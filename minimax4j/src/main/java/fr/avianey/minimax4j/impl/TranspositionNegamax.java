@@ -30,10 +30,9 @@ import fr.avianey.minimax4j.Move;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
 import java.util.*;
 
-import static fr.avianey.minimax4j.IAUtils.iterableToSortedList;
-
 /**
  * Negamax based with transposition table implementation.
  *
@@ -69,6 +68,8 @@ public abstract class TranspositionNegamax<M extends Move, K, G> extends Negamax
 
     private final transient TreeMap<G, Map<Integer, Transposition<K>>> transpositionTableMap;
     private final transient TranspositionTableFactory<K> transpositionTableFactory;
+    private final transient TranspositionTable transpositionTable;
+    private final transient TranspositionTable.Entry entry = new TranspositionTable.Entry();
 
     public TranspositionNegamax() {
         this(new TranspositionTableFactory<K>() {
@@ -101,6 +102,28 @@ public abstract class TranspositionNegamax<M extends Move, K, G> extends Negamax
         super();
         this.transpositionTableFactory = transpositionTableFactory;
         this.transpositionTableMap = initTranspositionTableMap();
+        this.transpositionTable = null;
+    }
+
+    /**
+     * Creates an IA storing transpositions in a fixed size {@link TranspositionTable}.<br/>
+     * Probes and stores don't allocate and the memory footprint doesn't grow along the game.
+     * Transpositions are indexed by {@link #getTranspositionHash()}, a keyed table SHOULD be used
+     * to check for collisions with {@link Object#equals(Object)} unless the hash is 64 bits wide.
+     * Groups are not used and {@link #saveTransposition(Object, Transposition, double, int, int)}
+     * is replaced by the replacement strategy of the table.
+     * When {@link #getMoveId(Move)} is implemented, the best move of each position is stored along
+     * with its score and is searched first when the position is met again, even if the stored search
+     * is too shallow to give a score.
+     * @param transpositionTable the table
+     * @see HeapTranspositionTable
+     * @see OffHeapTranspositionTable
+     */
+    public TranspositionNegamax(TranspositionTable transpositionTable) {
+        super();
+        this.transpositionTableFactory = null;
+        this.transpositionTableMap = null;
+        this.transpositionTable = transpositionTable;
     }
 
 
@@ -109,16 +132,8 @@ public abstract class TranspositionNegamax<M extends Move, K, G> extends Negamax
      * @return
      * 		A {@link TreeMap} storing transposition tables by group
      */
-    @SuppressWarnings("unchecked")
     private TreeMap<G, Map<Integer, Transposition<K>>> initTranspositionTableMap() {
-        Type t = getClass().getGenericSuperclass();
-        // search for the Group class within class hierarchy
-        while (!(t instanceof ParameterizedType
-                && TranspositionNegamax.class.getSimpleName().equals(
-                ((Class<?>) ((ParameterizedType) t).getRawType()).getSimpleName()))) {
-            t = ((Class<?>) t).getGenericSuperclass();
-        }
-        Class<G> cls = (Class<G>) ((ParameterizedType) t).getActualTypeArguments()[2];
+        Class<?> cls = getGroupClass();
         if (Comparable.class.isAssignableFrom(cls)) {
             // the transposition Group type is Comparable
             return new TreeMap<>();
@@ -136,8 +151,49 @@ public abstract class TranspositionNegamax<M extends Move, K, G> extends Negamax
         }
     }
 
+    /**
+     * Search for the Group class within class hierarchy.
+     * Type variables are resolved along the way so that the Group
+     * can be bound by any intermediate generic subclass.
+     * @return
+     *      The Group class
+     */
+    private Class<?> getGroupClass() {
+        Map<TypeVariable<?>, Type> bindings = new HashMap<>();
+        Type t = getClass();
+        while (t != null) {
+            Class<?> raw;
+            if (t instanceof ParameterizedType) {
+                raw = (Class<?>) ((ParameterizedType) t).getRawType();
+                TypeVariable<?>[] variables = raw.getTypeParameters();
+                Type[] arguments = ((ParameterizedType) t).getActualTypeArguments();
+                for (int i = 0; i < variables.length; i++) {
+                    Type argument = arguments[i];
+                    if (argument instanceof TypeVariable && bindings.containsKey(argument)) {
+                        argument = bindings.get(argument);
+                    }
+                    bindings.put(variables[i], argument);
+                }
+                if (raw == TranspositionNegamax.class) {
+                    Type group = bindings.get(variables[2]);
+                    if (group instanceof ParameterizedType) {
+                        group = ((ParameterizedType) group).getRawType();
+                    }
+                    if (group instanceof Class) {
+                        return (Class<?>) group;
+                    }
+                    throw new IllegalArgumentException("The transposition group type of " + getClass().getSimpleName() + " cannot be resolved.");
+                }
+            } else {
+                raw = (Class<?>) t;
+            }
+            t = raw.getGenericSuperclass();
+        }
+        throw new IllegalStateException(getClass().getSimpleName() + " does not extend " + TranspositionNegamax.class.getSimpleName());
+    }
+
     private void clearGroups(G currentGroup) {
-        if (currentGroup != null) {
+        if (currentGroup != null && transpositionTableMap != null) {
             // free memory :
             // evict unnecessary transpositions
             transpositionTableMap.headMap(currentGroup).clear();
@@ -151,7 +207,11 @@ public abstract class TranspositionNegamax<M extends Move, K, G> extends Negamax
      * @see #getGroup()
      */
     public final void clearTranspositions() {
-        transpositionTableMap.clear();
+        if (transpositionTable != null) {
+            transpositionTable.clear();
+        } else {
+            transpositionTableMap.clear();
+        }
     }
 
     /**
@@ -177,9 +237,29 @@ public abstract class TranspositionNegamax<M extends Move, K, G> extends Negamax
      * @return
      *      The key representing the current configuration.
      *      MUST be non null and preferably immutable.
+     * @see #getTranspositionHash()
      */
     public abstract K getTranspositionKey();
 
+    /**
+     * Returns a 64 bits hash of the current configuration, used to index and verify the transpositions
+     * of a {@link TranspositionTable}.<br/>
+     * The default implementation spreads the {@link #hashCode()} of the {@link #getTranspositionKey()} over
+     * 64 bits. Override this method to return a <a href="http://en.wikipedia.org/wiki/Zobrist_hashing">Zobrist hash</a>
+     * and use a table that is not keyed : transpositions are then verified through the high bits of the hash,
+     * without boxing nor key, and {@link #getTranspositionKey()} is never called.
+     * Collisions MUST be negligible.
+     *
+     * @return
+     *      The hash of the current configuration
+     * @see #TranspositionNegamax(TranspositionTable)
+     */
+    public long getTranspositionHash() {
+        // the low bits index the table
+        // and the high bits verify the entries
+        return getTranspositionKey().hashCode() * 0x9E3779B97F4A7C15L;
+    }
+
     /**
      * Represent the group in which the current transposition belong.<br/>
      * Groups can be use to lower the number of transposition stored in memory :
@@ -216,11 +296,11 @@ public abstract class TranspositionNegamax<M extends Move, K, G> extends Negamax
      */
     protected void saveTransposition(final K key, final Transposition<K> transposition, final double score, final int depth, final int flag) {
         if (transposition == null || transposition.depth <= depth) {
-            getTranspositionTable().put(key.hashCode(), new Transposition<K>(score, depth, flag, key));
+            getTranspositionMap().put(key.hashCode(), new Transposition<K>(score, depth, flag, key));
         }
     }
 
-    private Map<Integer, Transposition<K>> getTranspositionTable() {
+    private Map<Integer, Transposition<K>> getTranspositionMap() {
         Map<Integer, Transposition<K>> transpositionTable = transpositionTableMap.get(getGroup());
         if (transpositionTable == null) {
             transpositionTable = transpositionTableFactory.newTranspositionTable();
@@ -230,55 +310,144 @@ public abstract class TranspositionNegamax<M extends Move, K, G> extends Negamax
     }
 
     @Override
-    public List<M> getBestMoves(final int depth, Iterable<M> possibleMoves) {
-        if (depth <= 0) {
-            throw new IllegalArgumentException("Search depth MUST be > 0");
-        }
-        List<M> orderedMoves = iterableToSortedList(possibleMoves);
-        super.negamax(orderedMoves, depth, -maxEvaluateValue(), maxEvaluateValue());
+    public List<M> getBestMoves(final int depth, final double expectedScore, Iterable<M> possibleMoves) {
+        ageTranspositions();
+        List<M> orderedMoves = super.getBestMoves(depth, expectedScore, possibleMoves);
         // clear useless groups
         clearGroups(getGroup());
-        Collections.sort(orderedMoves);
         return orderedMoves;
     }
 
+    /**
+     * Start a new generation of entries in the fixed size table, once per search.
+     */
+    void ageTranspositions() {
+        if (transpositionTable != null) {
+            transpositionTable.nextAge();
+        }
+    }
+
+    /**
+     * Follow the best moves stored in the fixed size table from the given root move.<br/>
+     * Best moves are only stored when the table is given to the constructor and move ids are provided.
+     * @param first the best root move
+     * @param depth the search depth
+     * @return the line of play starting with the given move, truncated where no best move is stored
+     * @see #getMoveIdCount()
+     */
+    List<M> hashMoves(final M first, final int depth) {
+        List<M> line = new ArrayList<>(depth);
+        line.add(first);
+        makeMove(first);
+        while (line.size() < depth && transpositionTable != null && getMoveIdCount() > 0 && !isOver()) {
+            K key = transpositionTable.isKeyed() ? getTranspositionKey() : null;
+            if (!transpositionTable.probe(getTranspositionHash(), key, entry) || entry.move < 0) {
+                break;
+            }
+            M next = null;
+            for (M move : getPossibleMoves()) {
+                if (getMoveId(move) == entry.move) {
+                    next = move;
+                    break;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            line.add(next);
+            makeMove(next);
+        }
+        for (int i = line.size() - 1; i >= 0; i--) {
+            unmakeMove(line.get(i));
+        }
+        return line;
+    }
+
+    /**
+     * The fixed size table storing the transpositions.
+     * @return the table or null when transpositions are stored in maps
+     * @see #TranspositionNegamax(TranspositionTable)
+     */
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    @Override
+    protected double searchRoot(final List<M> orderedMoves, final int depth, final double alpha, final double beta) {
+        // skip the transposition table at root
+        // so that each move gets evaluated
+        return super.negamax(orderedMoves, depth, alpha, beta);
+    }
+
     @Override
     protected double negamax(final Iterable<M> possibleMoves, final int depth, final double alpha, final double beta) {
         double a = alpha;
         double b = beta;
-        K key = getTranspositionKey();
-        Transposition<K> transposition = getTranspositionTable().get(key.hashCode());
-        if (transposition != null && depth <= transposition.depth && key.equals(transposition.key)) {
-            switch (transposition.flag) {
+        K key;
+        Transposition<K> transposition = null;
+        long hash = 0;
+        boolean found;
+        if (transpositionTable != null) {
+            key = transpositionTable.isKeyed() ? getTranspositionKey() : null;
+            hash = getTranspositionHash();
+            found = transpositionTable.probe(hash, key, entry);
+        } else {
+            key = getTranspositionKey();
+            transposition = getTranspositionMap().get(key.hashCode());
+            found = transposition != null && key.equals(transposition.key);
+            if (found) {
+                entry.score = transposition.value;
+                entry.depth = transposition.depth;
+                entry.flag = transposition.flag;
+            }
+        }
+        if (found && depth <= entry.depth) {
+            switch (entry.flag) {
                 case FLAG_EXACT:
                     // transposition has a deeper or equal search depth
                     // we can stop here as we already know the value
                     // returned by the evaluation function
-                    return transposition.value;
+                    horizonReached |= !isOver();
+                    return entry.score;
                 case FLAG_UPPERBOUND:
-                    if (transposition.value < beta) {
-                        b = transposition.value;
+                    if (entry.score < beta) {
+                        b = entry.score;
                     }
                     break;
                 case FLAG_LOWERBOUND:
-                    if (transposition.value > alpha) {
-                        a = transposition.value;
+                    if (entry.score > alpha) {
+                        a = entry.score;
                     }
                     break;
             }
             if (a >= b) {
-                return transposition.value;
+                horizonReached |= !isOver();
+                return entry.score;
             }
         }
 
+        if (found && transpositionTable != null) {
+            // search the best move of the transposition first
+            hashMove = entry.move;
+        }
         double score = super.negamax(possibleMoves, depth, a, b);
+        if (isAborted()) {
+            // incomplete search
+            return score;
+        }
 
+        int flag;
         if (score <= a) {
-            saveTransposition(key, transposition, score, depth, FLAG_UPPERBOUND);
+            flag = FLAG_UPPERBOUND;
         } else if (score >= beta) {
-            saveTransposition(key, transposition, score, depth, FLAG_LOWERBOUND);
+            flag = FLAG_LOWERBOUND;
+        } else {
+            flag = FLAG_EXACT;
+        }
+        if (transpositionTable != null) {
+            transpositionTable.store(hash, key, score, depth, flag, getBestMoveId());
         } else {
-            saveTransposition(key, transposition, score, depth, FLAG_EXACT);
+            saveTransposition(key, transposition, score, depth, flag);
         }
 
         return score;
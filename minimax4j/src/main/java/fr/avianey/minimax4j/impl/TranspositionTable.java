@@ -0,0 +1,372 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.impl;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size transposition table keyed by 64 bits position hashes.<br/>
+ * Each entry is packed into two longs so that neither probes nor stores allocate :
+ * <pre>
+ * check  32 bits : the high bits of the position hash
+ * meta   32 bits : valid flag, age, flag, depth and best move id + 1
+ * score  64 bits : the double bits of the score
+ * </pre>
+ * The first long holds <code>(check &lt;&lt; 32 | meta) ^ score</code> and the second one the score,
+ * so that entries torn by concurrent stores fail the check and are ignored : the table can be shared
+ * by concurrent searches without locking.<br/>
+ * A keyed table also keeps a reference to the key of each entry so that positions are verified
+ * with {@link Object#equals(Object)} rather than through the check bits only. Keyed tables MUST NOT
+ * be shared by concurrent searches.<br/>
+ * Entries are grouped by buckets, a position maps to a bucket and the {@link ReplacementPolicy}
+ * decides which entry of the bucket it replaces. Each entry is tagged with the age of the search
+ * that stored it, entries from older searches are replaced first.
+ *
+ * @author antoine vianey
+ * @see HeapTranspositionTable
+ * @see OffHeapTranspositionTable
+ */
+public abstract class TranspositionTable {
+
+    public static final int FLAG_EXACT = TranspositionNegamax.FLAG_EXACT;
+    public static final int FLAG_UPPERBOUND = TranspositionNegamax.FLAG_UPPERBOUND;
+    public static final int FLAG_LOWERBOUND = TranspositionNegamax.FLAG_LOWERBOUND;
+
+    static final int MAX_DEPTH = 0xFF;
+
+    /**
+     * The greatest best move id that can be stored.
+     */
+    public static final int MAX_MOVE_ID = 0xFFFE;
+
+    static final int ENTRY_BYTES = 16;
+    static final int KEY_BYTES = 8;
+
+    private static final int MOVE_MASK = 0xFFFF;
+    private static final int DEPTH_SHIFT = 16;
+    private static final int FLAG_SHIFT = 24;
+    private static final int AGE_SHIFT = 26;
+    private static final int AGE_MASK = 0x1F;
+    private static final int VALID = 1 << 31;
+
+    /**
+     * How a stored position chooses the entry it replaces.
+     */
+    public enum ReplacementPolicy {
+
+        /**
+         * Buckets of a single entry, replaced unless it has been searched deeper by the current search.
+         */
+        DEPTH_PREFERRED(1),
+
+        /**
+         * Buckets of two entries : the first one is replaced unless it has been searched deeper
+         * by the current search, the second one is replaced otherwise.
+         */
+        TWO_TIER(2),
+
+        /**
+         * Buckets of four entries : a position replaces its own entry unless it has been searched deeper
+         * by the current search, otherwise the entry that is worth the less, empty entries first
+         * then entries from older searches then the shallowest entries.
+         */
+        BUCKET(4);
+
+        private final int ways;
+
+        ReplacementPolicy(int ways) {
+            this.ways = ways;
+        }
+
+        /**
+         * The number of entries of a bucket.
+         * @return the number of entries a position can be stored into
+         */
+        public int getWays() {
+            return ways;
+        }
+    }
+
+    /**
+     * The content of an entry, filled by {@link TranspositionTable#probe(long, Entry)}.
+     * Engines SHOULD reuse the same instance for all their probes.
+     */
+    public static final class Entry {
+        public double score;
+        public int depth;
+        public int flag;
+        /** The id of the best move or -1 if unknown */
+        public int move;
+    }
+
+    private final ReplacementPolicy replacementPolicy;
+    private final int ways;
+    private final int mask;
+    private final Object[] keys;
+    private int age;
+
+    /**
+     * @param entries the number of entries, a power of 2 greater or equal to the number of ways
+     */
+    TranspositionTable(final int entries, final boolean keyed, final ReplacementPolicy replacementPolicy) {
+        this.replacementPolicy = replacementPolicy;
+        this.ways = replacementPolicy.ways;
+        this.mask = entries / ways - 1;
+        this.keys = keyed ? new Object[entries] : null;
+    }
+
+    /**
+     * Round the given number of entries down to a power of 2 that fits the given bounds.
+     */
+    static int capacity(final int entries, final int max, final ReplacementPolicy replacementPolicy) {
+        if (entries <= 0) {
+            throw new IllegalArgumentException("Transposition table size MUST be > 0");
+        }
+        return Math.max(Integer.highestOneBit(Math.min(entries, max)), replacementPolicy.ways);
+    }
+
+    /**
+     * Look for the entry of a position.
+     * @param hash the hash of the position
+     * @param entry the entry to fill
+     * @return true if the entry of the position has been found
+     */
+    public boolean probe(final long hash, final Entry entry) {
+        return probe(hash, null, entry);
+    }
+
+    /**
+     * Look for the entry of a position.
+     * @param hash the hash of the position
+     * @param key the key of the position, verified when the table is keyed
+     * @param entry the entry to fill
+     * @return true if the entry of the position has been found
+     */
+    public boolean probe(final long hash, final Object key, final Entry entry) {
+        int first = ((int) hash & mask) * ways;
+        for (int slot = first; slot < first + ways; slot++) {
+            long score = score(slot);
+            long data = word(slot) ^ score;
+            if (matches(slot, data, hash, key)) {
+                entry.score = Double.longBitsToDouble(score);
+                entry.depth = depthOf(data);
+                entry.flag = ((int) data >>> FLAG_SHIFT) & 3;
+                entry.move = ((int) data & MOVE_MASK) - 1;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Store the entry of a position according to the {@link ReplacementPolicy}.
+     * @param hash the hash of the position
+     * @param score the score of the position
+     * @param depth the depth of the searched subtree (aka remaining depth)
+     * @param flag type of score {@link #FLAG_EXACT}, {@link #FLAG_LOWERBOUND}, {@link #FLAG_UPPERBOUND}
+     */
+    public void store(final long hash, final double score, final int depth, final int flag) {
+        store(hash, null, score, depth, flag, -1);
+    }
+
+    /**
+     * Store the entry of a position according to the {@link ReplacementPolicy}.
+     * @param hash the hash of the position
+     * @param key the key of the position, stored when the table is keyed
+     * @param score the score of the position
+     * @param depth the depth of the searched subtree (aka remaining depth)
+     * @param flag type of score {@link #FLAG_EXACT}, {@link #FLAG_LOWERBOUND}, {@link #FLAG_UPPERBOUND}
+     */
+    public void store(final long hash, final Object key, final double score, final int depth, final int flag) {
+        store(hash, key, score, depth, flag, -1);
+    }
+
+    /**
+     * Store the entry of a position according to the {@link ReplacementPolicy}.<br/>
+     * When the best move is unknown, the best move of the replaced entry of the position is kept.
+     * @param hash the hash of the position
+     * @param key the key of the position, stored when the table is keyed
+     * @param score the score of the position
+     * @param depth the depth of the searched subtree (aka remaining depth)
+     * @param flag type of score {@link #FLAG_EXACT}, {@link #FLAG_LOWERBOUND}, {@link #FLAG_UPPERBOUND}
+     * @param move the id of the best move, -1 if unknown or greater than {@link #MAX_MOVE_ID}
+     */
+    public void store(final long hash, final Object key, final double score, final int depth, final int flag, final int move) {
+        int first = ((int) hash & mask) * ways;
+        int victim = first;
+        switch (replacementPolicy) {
+            case DEPTH_PREFERRED:
+                if (keeps(data(first), depth)) {
+                    return;
+                }
+                break;
+            case TWO_TIER:
+                if (keeps(data(first), depth)) {
+                    // always replace
+                    victim = first + 1;
+                }
+                break;
+            default:
+                int worth = Integer.MAX_VALUE;
+                for (int slot = first; slot < first + ways; slot++) {
+                    long data = data(slot);
+                    if (matches(slot, data, hash, key)) {
+                        if (keeps(data, depth)) {
+                            return;
+                        }
+                        victim = slot;
+                        break;
+                    }
+                    int w = worth(data);
+                    if (w < worth) {
+                        worth = w;
+                        victim = slot;
+                    }
+                }
+                break;
+        }
+        int moveBits = move >= 0 && move <= MAX_MOVE_ID ? move + 1 : 0;
+        if (moveBits == 0) {
+            long data = data(victim);
+            if (matches(victim, data, hash, key)) {
+                // keep the best move of the position
+                moveBits = (int) data & MOVE_MASK;
+            }
+        }
+        if (keys != null) {
+            keys[victim] = key;
+        }
+        int meta = VALID | (age << AGE_SHIFT) | (flag << FLAG_SHIFT) | (Math.min(depth, MAX_DEPTH) << DEPTH_SHIFT) | moveBits;
+        long bits = Double.doubleToRawLongBits(score);
+        put(victim, ((hash >>> 32) << 32 | (meta & 0xFFFFFFFFL)) ^ bits, bits);
+    }
+
+    /**
+     * The number of entries of the table.
+     * @return the capacity of the table
+     */
+    public int size() {
+        return (mask + 1) * ways;
+    }
+
+    /**
+     * The replacement policy of the table.
+     * @return the policy used to store positions
+     */
+    public ReplacementPolicy getReplacementPolicy() {
+        return replacementPolicy;
+    }
+
+    /**
+     * Whether positions are verified with the {@link Object#equals(Object)} method of their keys.
+     * @return true if the table references the keys of its entries
+     */
+    public boolean isKeyed() {
+        return keys != null;
+    }
+
+    /**
+     * Remove all the entries.
+     */
+    public void clear() {
+        if (keys != null) {
+            Arrays.fill(keys, null);
+        }
+    }
+
+    /**
+     * Start a new generation of entries.<br/>
+     * Entries stored by previous generations are replaced regardless of their depth.
+     * Engines SHOULD call this method once per search.<br/>
+     * Ages are stored on 5 bits : the table is cleared every 32 generations so that
+     * entries of the search that used the same age are not taken for current ones.
+     */
+    public void nextAge() {
+        age = (age + 1) & AGE_MASK;
+        if (age == 0) {
+            clear();
+        }
+    }
+
+    /**
+     * The first long of an entry, holding the check and meta bits xored with the score.
+     * @param slot the index of the entry
+     */
+    abstract long word(int slot);
+
+    /**
+     * The second long of an entry, holding the double bits of the score.
+     * @param slot the index of the entry
+     */
+    abstract long score(int slot);
+
+    /**
+     * Write an entry, score first.
+     * @param slot the index of the entry
+     */
+    abstract void put(int slot, long word, long score);
+
+    private long data(final int slot) {
+        return word(slot) ^ score(slot);
+    }
+
+    /**
+     * Whether the given slot holds the entry of a position.
+     */
+    private boolean matches(final int slot, final long data, final long hash, final Object key) {
+        return ((int) data & VALID) != 0
+                && (int) (data >>> 32) == (int) (hash >>> 32)
+                && (keys == null || key.equals(keys[slot]));
+    }
+
+    /**
+     * Whether the given entry MUST be kept rather than replaced by an entry searched at the given depth.
+     */
+    private boolean keeps(final long data, final int depth) {
+        return ((int) data & VALID) != 0 && ageOf(data) == age && depthOf(data) > depth;
+    }
+
+    /**
+     * The value of an entry, entries from older searches and shallow entries being worth less.
+     * @return a negative value for empty entries
+     */
+    private int worth(final long data) {
+        if (((int) data & VALID) == 0) {
+            return -1;
+        }
+        return (ageOf(data) == age ? MAX_DEPTH + 1 : 0) + depthOf(data);
+    }
+
+    private static int depthOf(final long data) {
+        return ((int) data >>> DEPTH_SHIFT) & MAX_DEPTH;
+    }
+
+    private static int ageOf(final long data) {
+        return ((int) data >>> AGE_SHIFT) & AGE_MASK;
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.tablebase;
+
+/**
+ * A perfect index of the positions covered by a {@link Tablebase}.<br/>
+ * Each position, including the player to move, MUST have a distinct index between 0 and {@link #size()} (excluded).
+ * Indexes are not required to be dense : indexes that don't match any legal position are rejected
+ * by {@link #setPosition(long)}. The positions reachable from an indexed position MUST be indexed too.
+ *
+ * @author antoine vianey
+ */
+public interface PositionIndex {
+
+    /**
+     * The number of indexes.
+     * @return the upper bound (excluded) of the indexes
+     */
+    long size();
+
+    /**
+     * The index of the current position of the game.
+     * @return the index of the current position or -1 if the position is not covered
+     */
+    long getIndex();
+
+    /**
+     * Set the current position of the game to the position with the given index.
+     * @param index the index of the position
+     * @return false if the index doesn't match any legal position
+     */
+    boolean setPosition(long index);
+
+}
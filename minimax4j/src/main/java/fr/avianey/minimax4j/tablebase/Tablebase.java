@@ -0,0 +1,154 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.tablebase;
+
+import fr.avianey.minimax4j.Outcome;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read only access to a tablebase file built by {@link TablebaseGenerator}.<br/>
+ * The file is memory-mapped so that probing a position is a single byte read,
+ * without allocation nor system call, and the tablebase can be shared by concurrent searches.
+ * The file holds the result of each index for the player to move on 2 bits, after a 12 bytes header :
+ * <pre>
+ * int  magic number
+ * long number of indexes
+ * byte results of indexes 4i to 4i+3, lowest bits first
+ * </pre>
+ *
+ * @author antoine vianey
+ */
+public final class Tablebase implements Closeable {
+
+    static final int MAGIC = 0x4D544231;
+    static final int CODES_PER_BYTE = 4;
+    static final int CODES_PER_LONG = 32;
+
+    private static final int HEADER_SIZE = 12;
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+    private static final Outcome[] OUTCOMES = {Outcome.UNKNOWN, Outcome.WIN, Outcome.DRAW, Outcome.LOSS};
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long size;
+
+    private Tablebase(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+            throw new IOException("Not a tablebase file");
+        }
+        size = header.getLong();
+        long length = channel.size();
+        if (length < HEADER_SIZE + (size + CODES_PER_BYTE - 1) / CODES_PER_BYTE) {
+            throw new IOException("Truncated tablebase file");
+        }
+        // a buffer can't map more than 2GB
+        chunks = new MappedByteBuffer[(int) (((length - 1) >>> CHUNK_BITS) + 1)];
+        for (int i = 0; i < chunks.length; i++) {
+            long position = (long) i << CHUNK_BITS;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(length - position, 1L << CHUNK_BITS));
+        }
+    }
+
+    /**
+     * Map the given tablebase file in memory.
+     * @param file a file written by {@link TablebaseGenerator#generate(Path)}
+     * @return the tablebase
+     * @throws IOException if the file can't be read or is not a tablebase
+     */
+    public static Tablebase open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new Tablebase(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The number of indexes of the tablebase.
+     * @return the upper bound (excluded) of the indexes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * The result of the position with the given index for the player to move.
+     * @param index the index of the position as given by {@link PositionIndex#getIndex()}
+     * @return the result of the position or {@link Outcome#UNKNOWN} if the position is not covered
+     */
+    public Outcome probe(final long index) {
+        if (index < 0 || index >= size) {
+            return Outcome.UNKNOWN;
+        }
+        long position = HEADER_SIZE + index / CODES_PER_BYTE;
+        byte codes = chunks[(int) (position >>> CHUNK_BITS)].get((int) (position & CHUNK_MASK));
+        return decode(codes >>> ((index % CODES_PER_BYTE) * 2));
+    }
+
+    /**
+     * Close the file.<br/>
+     * The mapping is released once the tablebase is garbage collected, it MUST NOT be probed anymore.
+     * @throws IOException if the file can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    static Outcome decode(final int code) {
+        return OUTCOMES[code & 3];
+    }
+
+    static int encode(final Outcome outcome) {
+        switch (outcome) {
+            case WIN:
+                return 1;
+            case DRAW:
+                return 2;
+            case LOSS:
+                return 3;
+            default:
+                return 0;
+        }
+    }
+
+}
@@ -0,0 +1,208 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.tablebase;
+
+import fr.avianey.minimax4j.IA;
+import fr.avianey.minimax4j.Move;
+import fr.avianey.minimax4j.Outcome;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+/**
+ * Build a {@link Tablebase} holding the perfect play result of every position of a {@link PositionIndex}.<br/>
+ * Terminal positions are resolved first with {@link #getResult()}. The generator then iterates over
+ * the unresolved positions until no more position gets resolved :
+ * <ul>
+ * <li>a position is won when a move leads to a position lost for the opponent</li>
+ * <li>a position is lost when all the moves lead to positions won by the opponent</li>
+ * </ul>
+ * Remaining positions are draws. As {@link IA} only gives forward moves, each iteration
+ * looks up the results of the successors of a position instead of generating its predecessors.<br/>
+ * Results are kept in memory with 2 bits per index while generating.
+ *
+ * @author antoine vianey
+ *
+ * @param <M> Implementation of the Move interface to use
+ */
+public class TablebaseGenerator<M extends Move> {
+
+    private final IA<M> ia;
+    private final PositionIndex index;
+    private int iterations;
+
+    /**
+     * Creates a generator for the positions of the given index.
+     * @param ia the game, its current position is set by the index
+     * @param index the perfect index of the positions to solve
+     */
+    public TablebaseGenerator(IA<M> ia, PositionIndex index) {
+        this.ia = ia;
+        this.index = index;
+    }
+
+    /**
+     * Solve all the positions of the index and write the results to the given file.
+     * @param file the tablebase file to write
+     * @throws IOException if the file can't be written
+     */
+    public void generate(Path file) throws IOException {
+        final long size = index.size();
+        if (size <= 0) {
+            throw new IllegalArgumentException("Index size MUST be > 0");
+        }
+        long[] codes = new long[(int) ((size + Tablebase.CODES_PER_LONG - 1) / Tablebase.CODES_PER_LONG)];
+        // terminal positions
+        for (long i = 0; i < size; i++) {
+            if (index.setPosition(i) && ia.isOver()) {
+                set(codes, i, getResult());
+            }
+        }
+        // backward induction
+        iterations = 0;
+        boolean resolved = true;
+        while (resolved) {
+            resolved = false;
+            iterations++;
+            for (long i = 0; i < size; i++) {
+                if (get(codes, i) == Outcome.UNKNOWN && index.setPosition(i)) {
+                    Outcome outcome = solve(codes);
+                    if (outcome != Outcome.UNKNOWN) {
+                        set(codes, i, outcome);
+                        resolved = true;
+                    }
+                }
+            }
+        }
+        // positions that can't be forced
+        for (long i = 0; i < size; i++) {
+            if (get(codes, i) == Outcome.UNKNOWN && index.setPosition(i)) {
+                set(codes, i, Outcome.DRAW);
+            }
+        }
+        write(file, size, codes);
+    }
+
+    /**
+     * The number of iterations of the last generation.
+     * @return the number of iterations over the unresolved positions
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * The result of a terminal position for the current player.
+     * Defaults to the sign of {@link IA#evaluate()}.
+     * @return the result of the current position
+     */
+    protected Outcome getResult() {
+        double score = ia.evaluate();
+        return score > 0 ? Outcome.WIN : score < 0 ? Outcome.LOSS : Outcome.DRAW;
+    }
+
+    /**
+     * Resolve the current position from the results of its successors.
+     * @param codes the results known so far
+     * @return the result of the current position or {@link Outcome#UNKNOWN} if it can't be resolved yet
+     */
+    private Outcome solve(final long[] codes) {
+        Iterator<M> moves = ia.getPossibleMoves().iterator();
+        if (!moves.hasNext()) {
+            ia.next();
+            Outcome outcome = successor(codes);
+            ia.previous();
+            return outcome;
+        }
+        boolean lost = true;
+        while (moves.hasNext()) {
+            M move = moves.next();
+            ia.makeMove(move);
+            Outcome outcome = successor(codes);
+            ia.unmakeMove(move);
+            if (outcome == Outcome.WIN) {
+                return Outcome.WIN;
+            } else if (outcome != Outcome.LOSS) {
+                lost = false;
+            }
+        }
+        return lost ? Outcome.LOSS : Outcome.UNKNOWN;
+    }
+
+    /**
+     * The result of the current position for the player who just moved.
+     * @param codes the results known so far
+     * @return the opposite of the result of the current position
+     */
+    private Outcome successor(final long[] codes) {
+        long i = index.getIndex();
+        if (i < 0 || i >= index.size()) {
+            throw new IllegalStateException("Position reached from an indexed position MUST be indexed");
+        }
+        return get(codes, i).opposite();
+    }
+
+    private static Outcome get(final long[] codes, final long i) {
+        return Tablebase.decode((int) (codes[(int) (i / Tablebase.CODES_PER_LONG)] >>> ((i % Tablebase.CODES_PER_LONG) * 2)));
+    }
+
+    private static void set(final long[] codes, final long i, final Outcome outcome) {
+        int word = (int) (i / Tablebase.CODES_PER_LONG);
+        int shift = (int) ((i % Tablebase.CODES_PER_LONG) * 2);
+        codes[word] = (codes[word] & ~(3L << shift)) | ((long) Tablebase.encode(outcome) << shift);
+    }
+
+    private static void write(final Path file, final long size, final long[] codes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(Tablebase.MAGIC).putLong(size);
+            long bytes = (size + Tablebase.CODES_PER_BYTE - 1) / Tablebase.CODES_PER_BYTE;
+            for (long i = 0; i < bytes; i++) {
+                if (!buffer.hasRemaining()) {
+                    flush(channel, buffer);
+                }
+                buffer.put((byte) (codes[(int) (i / 8)] >>> ((i % 8) * 8)));
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+}
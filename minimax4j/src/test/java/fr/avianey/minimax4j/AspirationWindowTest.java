@@ -0,0 +1,107 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j;
+
+import fr.avianey.minimax4j.ia.BaseNegaScout;
+import fr.avianey.minimax4j.ia.BaseNegamax;
+import fr.avianey.minimax4j.ia.IAMove;
+import fr.avianey.minimax4j.ia.TranspositionNegamaxNoCollision;
+import fr.avianey.minimax4j.impl.Negamax;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+public class AspirationWindowTest {
+
+    private static final int DEPTH = 3;
+    private static final double WINDOW = 1;
+    private static final double ERROR = 10;
+
+    private final Negamax<IAMove> IA;
+
+    public AspirationWindowTest(Negamax<IAMove> IA) {
+        this.IA = IA;
+    }
+
+    @Parameters
+    public static Collection<Object[]> params() {
+        return Arrays.asList(
+                new Object[]{new BaseNegamax() {
+                    @Override
+                    protected double getAspirationWindow() {
+                        return WINDOW;
+                    }
+                }},
+                new Object[]{new BaseNegaScout() {
+                    @Override
+                    protected double getAspirationWindow() {
+                        return WINDOW;
+                    }
+                }},
+                new Object[]{new TranspositionNegamaxNoCollision() {
+                    @Override
+                    protected double getAspirationWindow() {
+                        return WINDOW;
+                    }
+                }}
+        );
+    }
+
+    private static void assertSameBestMove(IAMove expected, List<IAMove> moves) {
+        assertEquals("Best move must not depend on the window.", expected.getPosition(), moves.get(0).getPosition());
+        assertEquals("Best value must not depend on the window.", expected.value, moves.get(0).value, 0);
+    }
+
+    @Test
+    public void shouldNotResearchAroundExactScore() {
+        IAMove expected = new BaseNegamax().getBestMoves(DEPTH).get(0);
+        assertSameBestMove(expected, IA.getBestMoves(DEPTH, expected.value, IA.getPossibleMoves()));
+        assertEquals("A window around the exact score must not fail.", 0, IA.getAspirationResearches());
+    }
+
+    @Test
+    public void shouldResearchWhenScoreFallsOutsideOfWindow() {
+        IAMove expected = new BaseNegamax().getBestMoves(DEPTH).get(0);
+        // fail low
+        assertSameBestMove(expected, IA.getBestMoves(DEPTH, expected.value + ERROR, IA.getPossibleMoves()));
+        long researches = IA.getAspirationResearches();
+        assertTrue("A window above the score must fail low.", researches > 0);
+        // fail high
+        assertSameBestMove(expected, IA.getBestMoves(DEPTH, expected.value - ERROR, IA.getPossibleMoves()));
+        assertTrue("A window below the score must fail high.", IA.getAspirationResearches() > researches);
+    }
+
+}
@@ -27,6 +27,9 @@
 package fr.avianey.minimax4j;
 
 import fr.avianey.minimax4j.ia.*;
+import fr.avianey.minimax4j.impl.HeapTranspositionTable;
+import fr.avianey.minimax4j.impl.OffHeapTranspositionTable;
+import fr.avianey.minimax4j.impl.TranspositionTable;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
@@ -34,6 +37,7 @@ import org.junit.runners.Parameterized.Parameters;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 
 import static org.junit.Assert.assertEquals;
 
@@ -61,18 +65,135 @@ public class BestMoveTest {
                 new Object[]{1, new BaseNegamax()},
                 new Object[]{2, new BaseNegamax()},
                 new Object[]{3, new BaseNegamax()},
+                new Object[]{1, new BaseNegaScout()},
+                new Object[]{2, new BaseNegaScout()},
+                new Object[]{3, new BaseNegaScout()},
                 // parallel IA
                 new Object[]{1, new BaseParallelNegamax()},
                 new Object[]{2, new BaseParallelNegamax()},
                 new Object[]{3, new BaseParallelNegamax()},
+                new Object[]{1, new BaseLazySMPNegamax()},
+                new Object[]{2, new BaseLazySMPNegamax()},
+                new Object[]{3, new BaseLazySMPNegamax()},
+                new Object[]{3, new BaseLazySMPNegamax(2, new OffHeapTranspositionTable(1 << 16))},
                 // transposition IA
                 new Object[]{1, new TranspositionNegamaxNoCollision()},
                 new Object[]{2, new TranspositionNegamaxNoCollision()},
-                new Object[]{3, new TranspositionNegamaxNoCollision()}
+                new Object[]{3, new TranspositionNegamaxNoCollision()},
+                new Object[]{1, new TranspositionNegamaxNoCollision(new HeapTranspositionTable(1 << 16, true))},
+                new Object[]{2, new TranspositionNegamaxNoCollision(new HeapTranspositionTable(1 << 16, true))},
+                new Object[]{3, new TranspositionNegamaxNoCollision(HeapTranspositionTable.ofMegabytes(1, true))},
+                new Object[]{2, new TranspositionNegamaxNoCollision(new OffHeapTranspositionTable(1 << 16, true))},
+                new Object[]{3, new TranspositionNegamaxNoCollision(OffHeapTranspositionTable.ofMegabytes(1, true))},
+                new Object[]{1, new ZobristTranspositionNegamax(new HeapTranspositionTable(1 << 16))},
+                new Object[]{2, new ZobristTranspositionNegamax(new HeapTranspositionTable(1 << 16))},
+                new Object[]{3, new ZobristTranspositionNegamax(new OffHeapTranspositionTable(1 << 16))},
+                new Object[]{1, new BaseExpectiminimax()},
+                new Object[]{2, new BaseExpectiminimax()},
+                new Object[]{3, new BaseExpectiminimax()},
+                new Object[]{1, new MTDfNoCollision()},
+                new Object[]{2, new MTDfNoCollision()},
+                new Object[]{3, new MTDfNoCollision()},
+                new Object[]{3, new MTDfNoCollision(HeapTranspositionTable.ofMegabytes(1, true))},
+                // quiescence search
+                new Object[]{1, new BaseNegamax() {
+                    @Override
+                    protected Iterable<IAMove> getQuiescenceMoves() {
+                        // the highest available cell is noisy
+                        IAMove noisy = null;
+                        for (IAMove move : getPossibleMoves()) {
+                            noisy = move;
+                        }
+                        return noisy == null ? Collections.<IAMove>emptyList() : Collections.singletonList(noisy);
+                    }
+                }},
+                // null move pruning
+                new Object[]{3, new BaseNegamax() {
+                    @Override
+                    protected int getNullMoveReduction() {
+                        return 1;
+                    }
+                    @Override
+                    protected boolean isNullMoveAllowed() {
+                        // passing changes who plays the last cell
+                        return !hasFewMovesLeft(this, 4);
+                    }
+                }},
+                new Object[]{3, new TranspositionNegamaxNoCollision() {
+                    @Override
+                    protected int getNullMoveReduction() {
+                        return 1;
+                    }
+                    @Override
+                    protected boolean isNullMoveAllowed() {
+                        // passing changes who plays the last cell
+                        return !hasFewMovesLeft(this, 4);
+                    }
+                }},
+                // late move reductions
+                new Object[]{3, new BaseNegamax() {
+                    @Override
+                    protected int getLateMoveReduction(int depth, int index) {
+                        return depth >= 2 && index >= 2 ? 1 : 0;
+                    }
+                }},
+                // killer moves, history heuristic and counter moves
+                new Object[]{3, new BaseNegamax() {
+                    @Override
+                    protected int getMoveIdCount() {
+                        return Logic.GRID_SIZE;
+                    }
+                    @Override
+                    protected int getMoveId(IAMove move) {
+                        return move.getPosition();
+                    }
+                }},
+                new Object[]{3, new TranspositionNegamaxNoCollision() {
+                    @Override
+                    protected int getMoveIdCount() {
+                        return Logic.GRID_SIZE;
+                    }
+                    @Override
+                    protected int getMoveId(IAMove move) {
+                        return move.getPosition();
+                    }
+                }},
+                // hash move
+                new Object[]{3, new ZobristTranspositionNegamax(new HeapTranspositionTable(1 << 16, false, TranspositionTable.ReplacementPolicy.BUCKET)) {
+                    @Override
+                    protected int getMoveIdCount() {
+                        return Logic.GRID_SIZE;
+                    }
+                    @Override
+                    protected int getMoveId(IAMove move) {
+                        return move.getPosition();
+                    }
+                }},
+                // futility pruning and razoring
+                new Object[]{3, new BaseNegamax() {
+                    @Override
+                    protected double getFutilityMargin(int depth) {
+                        // a quiet move gains at most the value of a cell
+                        return depth == 1 && !hasFewMovesLeft(this, 1) ? Logic.GRID_SIZE : Double.POSITIVE_INFINITY;
+                    }
+                    @Override
+                    protected double getRazoringMargin(int depth) {
+                        return depth == 1 && !hasFewMovesLeft(this, 1) ? Logic.GRID_SIZE : Double.POSITIVE_INFINITY;
+                    }
+                }}
                 //new Object[]{4, new TranspositionNegamaxNoCollision()}
         );
     }
 
+    private static boolean hasFewMovesLeft(IA<IAMove> ia, int count) {
+        for (IAMove move : ia.getPossibleMoves()) {
+            if (--count < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Test
     public void shouldBestMoveAlwaysReturnLastAvailableCell() {
         int cell = Logic.GRID_SIZE - 1;
@@ -0,0 +1,71 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j;
+
+import fr.avianey.minimax4j.ia.BaseExpectiminimax;
+import fr.avianey.minimax4j.ia.IAMove;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExpectiminimaxTest {
+
+    private static final int DEPTH = 3;
+    private static final int TURNS = 4;
+    private static final double BONUS = 20;
+
+    /**
+     * The value of the best root move searched without any pruning.
+     */
+    private static double expectimax(BaseExpectiminimax ia, int depth) {
+        double best = -ia.maxEvaluateValue();
+        for (IAMove move : ia.getPossibleMoves()) {
+            ia.makeMove(move);
+            best = Math.max(best, -ia.expectimax(depth - 1));
+            ia.unmakeMove(move);
+        }
+        return best;
+    }
+
+    @Test
+    public void shouldPruneChanceNodesWithoutChangingValues() {
+        BaseExpectiminimax ia = new BaseExpectiminimax(BONUS);
+        BaseExpectiminimax reference = new BaseExpectiminimax(BONUS);
+        long chanceCutoffs = 0;
+        for (int turn = 0; turn < TURNS; turn++) {
+            IAMove best = ia.getBestMoves(DEPTH).get(0);
+            chanceCutoffs += ia.getChanceCutoffs();
+            assertEquals("Pruned and unpruned values must be equal.", expectimax(reference, DEPTH), best.value, 1e-9);
+            IAMove move = new IAMove(best.getPosition());
+            ia.makeMove(move);
+            reference.makeMove(move);
+        }
+        assertTrue("Chance nodes must be cut off.", chanceCutoffs > 0);
+    }
+
+}
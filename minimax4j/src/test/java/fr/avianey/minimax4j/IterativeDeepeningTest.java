@@ -0,0 +1,106 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j;
+
+import fr.avianey.minimax4j.ia.BaseNegamax;
+import fr.avianey.minimax4j.ia.Cleanable;
+import fr.avianey.minimax4j.ia.IAMove;
+import fr.avianey.minimax4j.ia.Logic;
+import fr.avianey.minimax4j.ia.TranspositionNegamaxNoCollision;
+import fr.avianey.minimax4j.impl.Negamax;
+import fr.avianey.minimax4j.impl.TranspositionNegamax;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+public class IterativeDeepeningTest {
+
+    private final Negamax<IAMove> IA;
+
+    public IterativeDeepeningTest(Negamax<IAMove> IA) {
+        this.IA = IA;
+    }
+
+    @Parameters
+    public static Collection<Object[]> params() {
+        return Arrays.asList(
+                new Object[]{new BaseNegamax()},
+                new Object[]{new TranspositionNegamaxNoCollision()}
+        );
+    }
+
+    @Before
+    public void clean() {
+        ((Cleanable) IA).clean();
+    }
+
+    @Test
+    public void shouldBestMoveAlwaysReturnLastAvailableCell() {
+        int cell = Logic.GRID_SIZE - 1;
+        while (!IA.isOver()) {
+            IAMove move = IA.getBestMovesWithin(20, MILLISECONDS, 3, IA.getPossibleMoves()).get(0);
+            assertEquals("Best move must be highest available position in grid.", cell, move.getPosition());
+            assertTrue("At least one iteration must complete.", IA.getCompletedDepth() >= 1);
+            IA.makeMove(move);
+            cell--;
+        }
+        assertEquals("When over, all cell should be taken.", -1, cell);
+    }
+
+    @Test
+    public void shouldStopAtMaxDepth() {
+        List<IAMove> moves = IA.getBestMovesWithin(1, DAYS, 2, IA.getPossibleMoves());
+        assertEquals("Search must stop at max depth.", 2, IA.getCompletedDepth());
+        assertEquals("Best move must be highest available position in grid.", Logic.GRID_SIZE - 1, moves.get(0).getPosition());
+    }
+
+    @Test
+    public void shouldStopWhenTreeIsFullySearched() {
+        for (int i = 0; i < Logic.GRID_SIZE - 2; i++) {
+            IA.makeMove(IA.getBestMoves(1).get(0));
+        }
+        if (IA instanceof TranspositionNegamax) {
+            // transpositions from previous searches may hide terminal subtrees
+            ((TranspositionNegamax<?, ?, ?>) IA).clearTranspositions();
+        }
+        IA.getBestMovesWithin(1, DAYS);
+        assertTrue("Search must stop once the whole game tree is explored.", IA.getCompletedDepth() <= 3);
+    }
+
+}
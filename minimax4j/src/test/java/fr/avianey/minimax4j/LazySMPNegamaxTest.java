@@ -0,0 +1,112 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j;
+
+import fr.avianey.minimax4j.ia.BaseLazySMPNegamax;
+import fr.avianey.minimax4j.ia.BaseNegamax;
+import fr.avianey.minimax4j.ia.IAMove;
+import fr.avianey.minimax4j.impl.LazySMPNegamax;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LazySMPNegamaxTest {
+
+    private static final int DEPTH = 3;
+
+    /**
+     * Fails evaluating positions in the main thread, the helper threads or both.
+     */
+    private static final class FailingLazySMPNegamax extends BaseLazySMPNegamax {
+
+        private final boolean failMain;
+        private final boolean failHelpers;
+        private final boolean main;
+
+        private FailingLazySMPNegamax(boolean failMain, boolean failHelpers) {
+            super(2);
+            this.failMain = failMain;
+            this.failHelpers = failHelpers;
+            this.main = true;
+        }
+
+        private FailingLazySMPNegamax(FailingLazySMPNegamax ia) {
+            super(ia);
+            this.failMain = ia.failMain;
+            this.failHelpers = ia.failHelpers;
+            this.main = false;
+        }
+
+        @Override
+        public LazySMPNegamax<IAMove> clone() {
+            return new FailingLazySMPNegamax(this);
+        }
+
+        @Override
+        public double evaluate() {
+            if (main ? failMain : failHelpers) {
+                throw new UnsupportedOperationException(main ? "main" : "helper");
+            }
+            return super.evaluate();
+        }
+    }
+
+    @Test
+    public void shouldDeepenMainSearchIteratively() {
+        BaseLazySMPNegamax ia = new BaseLazySMPNegamax(4);
+        IAMove expected = new BaseNegamax().getBestMoves(DEPTH).get(0);
+        IAMove actual = ia.getBestMoves(DEPTH).get(0);
+        assertEquals("Best move must be the same.", expected.getPosition(), actual.getPosition());
+        assertEquals("Best value must be the same.", expected.value, actual.value, 0);
+        assertEquals("Main search must complete every iteration.", DEPTH, ia.getCompletedDepth());
+    }
+
+    @Test
+    public void shouldFailWhenHelperFails() {
+        try {
+            new FailingLazySMPNegamax(false, true).getBestMoves(DEPTH);
+            fail("Helper failure must not be ignored.");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof UnsupportedOperationException);
+        }
+    }
+
+    @Test
+    public void shouldNotHideMainFailure() {
+        try {
+            new FailingLazySMPNegamax(true, true).getBestMoves(DEPTH);
+            fail("Main failure must be thrown.");
+        } catch (UnsupportedOperationException e) {
+            assertEquals("main", e.getMessage());
+            assertEquals("Helper failure must be suppressed.", 1, e.getSuppressed().length);
+            assertTrue(e.getSuppressed()[0] instanceof UnsupportedOperationException);
+        }
+    }
+
+}
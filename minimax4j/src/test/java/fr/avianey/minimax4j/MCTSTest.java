@@ -0,0 +1,127 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j;
+
+import fr.avianey.minimax4j.ia.BaseMCTS;
+import fr.avianey.minimax4j.ia.BaseParallelMCTS;
+import fr.avianey.minimax4j.ia.Cleanable;
+import fr.avianey.minimax4j.ia.IAMove;
+import fr.avianey.minimax4j.ia.Logic;
+import fr.avianey.minimax4j.impl.MCTS;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+public class MCTSTest {
+
+    private static final int MAX_NODES = 200;
+    private static final int SEARCHES = 8;
+
+    private final MCTS<IAMove> IA;
+    private final MCTS<IAMove> passingIA;
+    private final MCTS<IAMove> smallIA;
+
+    public MCTSTest(MCTS<IAMove> IA, MCTS<IAMove> passingIA, MCTS<IAMove> smallIA) {
+        this.IA = IA;
+        this.passingIA = passingIA;
+        this.smallIA = smallIA;
+    }
+
+    @Parameters
+    public static Collection<Object[]> params() {
+        return Arrays.asList(
+                new Object[]{new BaseMCTS(), new BaseMCTS(true), new BaseMCTS(MAX_NODES)},
+                new Object[]{new BaseParallelMCTS(), new BaseParallelMCTS(true), new BaseParallelMCTS(2, MAX_NODES, 0)}
+        );
+    }
+
+    @Before
+    public void clean() {
+        ((Cleanable) IA).clean();
+        ((Cleanable) passingIA).clean();
+        ((Cleanable) smallIA).clean();
+    }
+
+    @Test
+    public void shouldFindTheOnlyWinningMove() {
+        // highest cells are taken in turn except for cell 38 which is taken last
+        // leaving cells 0 to 5 to the first player : only the highest one wins
+        for (int cell = Logic.GRID_SIZE - 1; cell > 5; cell--) {
+            if (cell != 38) {
+                IA.makeMove(new IAMove(cell));
+            }
+        }
+        IA.makeMove(new IAMove(38));
+        List<IAMove> moves = IA.getBestMoves(Integer.MAX_VALUE);
+        assertEquals("Best move must be the winning move.", 5, moves.get(0).getPosition());
+    }
+
+    @Test
+    public void shouldSimulateFromPassPositions() {
+        // every reply to the first move is a pass
+        // and is visited often enough to be expanded
+        List<IAMove> moves = passingIA.getBestMoves(Integer.MAX_VALUE);
+        assertEquals("Every move must be ranked.", Logic.GRID_SIZE, moves.size());
+        for (IAMove move : moves) {
+            assertTrue("Pass positions must be visited again.", move.value > 2);
+        }
+    }
+
+    @Test
+    public void shouldStopGrowingTheTreeOnceFull() {
+        // a slow JVM may not fill the tree within the first time budget
+        for (int i = 0; i < SEARCHES && (i == 0 || smallIA.getNodeCount() <= MAX_NODES - Logic.GRID_SIZE); i++) {
+            List<IAMove> moves = smallIA.getBestMovesWithin(50, MILLISECONDS);
+            assertEquals("Every move must be ranked.", Logic.GRID_SIZE, moves.size());
+            assertTrue("Tree must not grow past its maximum size.", smallIA.getNodeCount() <= MAX_NODES);
+        }
+        assertTrue("Tree must be filled.", smallIA.getNodeCount() > MAX_NODES - Logic.GRID_SIZE);
+        assertTrue("Tree must not grow past its maximum size.", smallIA.getNodeCount() <= MAX_NODES);
+    }
+
+    @Test
+    public void shouldRankMovesByVisitCount() {
+        List<IAMove> moves = IA.getBestMovesWithin(50, MILLISECONDS);
+        assertEquals("Every move must be ranked.", Logic.GRID_SIZE, moves.size());
+        assertTrue("Moves must be visited.", moves.get(0).value > 0);
+        for (int i = 1; i < moves.size(); i++) {
+            assertTrue("Moves must be ranked by visit count.", moves.get(i - 1).value >= moves.get(i).value);
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j;
+
+import fr.avianey.minimax4j.ia.BaseMinimax;
+import fr.avianey.minimax4j.ia.BaseNegaScout;
+import fr.avianey.minimax4j.ia.BaseNegamax;
+import fr.avianey.minimax4j.ia.Cleanable;
+import fr.avianey.minimax4j.ia.IAMove;
+import fr.avianey.minimax4j.ia.MTDfNoCollision;
+import fr.avianey.minimax4j.ia.TranspositionNegamaxNoCollision;
+import fr.avianey.minimax4j.impl.Negamax;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+public class MultiPVTest {
+
+    private static final int DEPTH = 3;
+    private static final int COUNT = 3;
+
+    private final Negamax<IAMove> IA;
+
+    public MultiPVTest(Negamax<IAMove> IA) {
+        this.IA = IA;
+    }
+
+    @Parameters
+    public static Collection<Object[]> params() {
+        return Arrays.asList(
+                new Object[]{new BaseNegamax()},
+                new Object[]{new BaseNegaScout()},
+                new Object[]{new TranspositionNegamaxNoCollision()},
+                new Object[]{new MTDfNoCollision()}
+        );
+    }
+
+    @Before
+    public void clean() {
+        ((Cleanable) IA).clean();
+    }
+
+    @Test
+    public void shouldTopMovesHaveExactValues() {
+        BaseMinimax minimax = new BaseMinimax();
+        for (int turn = 0; turn < 4; turn++) {
+            List<IAMove> exact = minimax.getBestMoves(DEPTH);
+            Map<Integer, Double> values = new HashMap<>();
+            for (IAMove move : exact) {
+                values.put(move.getPosition(), move.value);
+            }
+            List<IAMove> moves = IA.getTopMoves(DEPTH, COUNT, IA.getPossibleMoves());
+            for (int i = 0; i < COUNT; i++) {
+                assertEquals("Top moves must be the best moves.", exact.get(i).value, moves.get(i).value, 0);
+                assertEquals("Top moves must have exact values.", values.get(moves.get(i).getPosition()), moves.get(i).value, 0);
+            }
+            for (int i = COUNT; i < moves.size(); i++) {
+                assertTrue("Other moves must have upper bounds.", moves.get(i).value >= values.get(moves.get(i).getPosition()));
+            }
+            IAMove best = new IAMove(moves.get(0).getPosition());
+            IA.makeMove(best);
+            minimax.makeMove(best);
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j;
+
+import fr.avianey.minimax4j.ia.IAMove;
+import fr.avianey.minimax4j.ia.RandomTreeNegaScout;
+import fr.avianey.minimax4j.ia.RandomTreeNegamax;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NegaScoutTest {
+
+    private static final int DEPTH = 7;
+    private static final int SEEDS = 5;
+
+    @Test
+    public void shouldVisitLessNodesThanNegamax() {
+        long negamaxEvaluations = 0;
+        long negaScoutEvaluations = 0;
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            RandomTreeNegamax negamax = new RandomTreeNegamax(seed);
+            RandomTreeNegaScout negaScout = new RandomTreeNegaScout(seed);
+            IAMove expected = negamax.getBestMoves(DEPTH).get(0);
+            IAMove actual = negaScout.getBestMoves(DEPTH).get(0);
+            assertEquals("NegaScout must find the value of Negamax.", expected.value, actual.value, 0);
+            negamaxEvaluations += negamax.getEvaluations();
+            negaScoutEvaluations += negaScout.getEvaluations();
+        }
+        assertTrue("Zero window searches must save nodes.", negaScoutEvaluations < negamaxEvaluations);
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j;
+
+import fr.avianey.minimax4j.book.OpeningBook;
+import fr.avianey.minimax4j.book.OpeningBookBuilder;
+import fr.avianey.minimax4j.book.OpeningBookIA;
+import fr.avianey.minimax4j.ia.BookNegamax;
+import fr.avianey.minimax4j.ia.IAMove;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static fr.avianey.minimax4j.ia.Logic.GRID_SIZE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OpeningBookTest {
+
+    private static final int PLIES = 2;
+    private static final int DEPTH = 2;
+
+    @ClassRule
+    public static final TemporaryFolder FOLDER = new TemporaryFolder();
+
+    private static OpeningBook book;
+    private static int positionCount;
+
+    @BeforeClass
+    public static void build() throws IOException {
+        Path file = FOLDER.newFile("opening.book").toPath();
+        OpeningBookBuilder<IAMove> builder = new OpeningBookBuilder<>(new Supplier<BookNegamax>() {
+            @Override
+            public BookNegamax get() {
+                return new BookNegamax();
+            }
+        }, 2);
+        builder.build(PLIES, DEPTH, file);
+        positionCount = builder.getPositionCount();
+        book = OpeningBook.open(file);
+    }
+
+    @AfterClass
+    public static void close() throws IOException {
+        book.close();
+    }
+
+    @Test
+    public void shouldBookHoldEveryMoveOfTheFirstPlies() {
+        assertEquals("Book must hold the initial position and its children.", 1 + GRID_SIZE, positionCount);
+        assertEquals("Book must hold every move of each position.", GRID_SIZE + GRID_SIZE * (GRID_SIZE - 1), book.size());
+    }
+
+    @Test
+    public void shouldFailOnMoveIdsChangingBetweenEngines() throws IOException {
+        Path file = FOLDER.newFile("unstable.book").toPath();
+        OpeningBookBuilder<IAMove> builder = new OpeningBookBuilder<>(new Supplier<BookNegamax>() {
+            private int engines;
+            @Override
+            public BookNegamax get() {
+                final int offset = GRID_SIZE * engines++;
+                return new BookNegamax() {
+                    @Override
+                    public int getMoveId(IAMove move) {
+                        return offset + move.getPosition();
+                    }
+                };
+            }
+        }, 1);
+        try {
+            builder.build(PLIES, DEPTH, file);
+            fail("Build must fail when replayed move ids match no possible move.");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void shouldBookAnswerLikeSearch() {
+        BookNegamax negamax = new BookNegamax();
+        OpeningBookIA<IAMove> ia = new OpeningBookIA<>(new BookNegamax(), book);
+        for (int ply = 0; ply <= PLIES; ply++) {
+            List<IAMove> expected = negamax.getBestMoves(DEPTH);
+            List<IAMove> moves = ia.getBestMoves(DEPTH);
+            assertEquals(expected.size(), moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                assertEquals("Book moves must have search values.", expected.get(i).value, moves.get(i).value, 0);
+            }
+            assertEquals("Book must answer positions of the first plies only.", Math.min(ply + 1, PLIES), ia.getBookHits());
+            IAMove best = new IAMove(moves.get(0).getPosition());
+            negamax.makeMove(best);
+            ia.makeMove(best);
+        }
+    }
+
+}
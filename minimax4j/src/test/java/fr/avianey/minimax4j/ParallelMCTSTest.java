@@ -0,0 +1,68 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j;
+
+import fr.avianey.minimax4j.ia.BaseParallelMCTS;
+import fr.avianey.minimax4j.ia.IAMove;
+import fr.avianey.minimax4j.ia.Logic;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelMCTSTest {
+
+    private static final int WORKERS = 4;
+    private static final int MAX_NODES = 1000;
+    private static final int ITERATIONS = 20000;
+
+    @Test
+    public void shouldCountEveryVisitOfEveryWorker() {
+        BaseParallelMCTS ia = new BaseParallelMCTS(WORKERS, MAX_NODES, ITERATIONS);
+        List<IAMove> moves = ia.getBestMoves(Integer.MAX_VALUE);
+        assertEquals("Every move must be ranked.", Logic.GRID_SIZE, moves.size());
+        long visits = 0;
+        for (IAMove move : moves) {
+            visits += (long) move.value;
+        }
+        // virtual losses are the visits of the iterations
+        assertEquals("Each iteration must visit one root move.", ITERATIONS, visits);
+    }
+
+    @Test
+    public void shouldNotGrowTheTreePastMaxNodes() {
+        BaseParallelMCTS ia = new BaseParallelMCTS(WORKERS, MAX_NODES, ITERATIONS);
+        for (int i = 0; i < 2; i++) {
+            ia.getBestMoves(Integer.MAX_VALUE);
+            assertTrue("Tree must be filled.", ia.getNodeCount() > MAX_NODES - Logic.GRID_SIZE);
+            assertTrue("Tree must not grow past its capacity.", ia.getNodeCount() <= MAX_NODES);
+        }
+    }
+
+}
@@ -0,0 +1,317 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j;
+
+import fr.avianey.minimax4j.ia.BaseNegamax;
+import fr.avianey.minimax4j.ia.BaseParallelNegamax;
+import fr.avianey.minimax4j.ia.IAMove;
+import fr.avianey.minimax4j.ia.Logic;
+import fr.avianey.minimax4j.impl.ParallelNegamax;
+import org.junit.Test;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelNegamaxTest {
+
+    private static final int DEPTH = 4;
+    private static final int SHALLOW_DEPTH = 3;
+    private static final int SLOW_CELLS = 8;
+    private static final int SEARCHES = 8;
+
+    /**
+     * Sequential search of the moves in the order of {@link BaseParallelNegamax} :
+     * highest cells first, the highest one searched second.
+     */
+    private static class BestSecondNegamax extends BaseNegamax {
+
+        private long evaluations;
+
+        @Override
+        public Iterable<IAMove> getPossibleMoves() {
+            LinkedList<IAMove> moves = new LinkedList<>();
+            for (IAMove move : super.getPossibleMoves()) {
+                moves.addFirst(move);
+            }
+            if (moves.size() > 1) {
+                moves.add(1, moves.removeFirst());
+            }
+            return moves;
+        }
+
+        @Override
+        public double evaluate() {
+            evaluations++;
+            return super.evaluate();
+        }
+    }
+
+    /**
+     * Evaluations cost much more than a clone.
+     */
+    private static final class SlowEvaluationParallelNegamax extends BaseParallelNegamax {
+
+        private static final long EVALUATION_NANOS = 1000000;
+
+        private SlowEvaluationParallelNegamax() {
+            super(ParallelNegamax.ADAPTIVE_SPLIT_DEPTH);
+        }
+
+        private SlowEvaluationParallelNegamax(SlowEvaluationParallelNegamax ia) {
+            super(ia);
+        }
+
+        @Override
+        public ParallelNegamax<IAMove> clone() {
+            return new SlowEvaluationParallelNegamax(this);
+        }
+
+        @Override
+        public double evaluate() {
+            long end = System.nanoTime() + EVALUATION_NANOS;
+            while (System.nanoTime() - end < 0) {
+                // busy
+            }
+            return super.evaluate();
+        }
+    }
+
+    /**
+     * Three root moves searched in parallel below the root only, the value of each leaf only depends on the root move.
+     * When gated, the last root move waits for the second one at its first leaf,
+     * so that the second one completes and raises alpha while the last one is running.
+     */
+    private static final class GatedParallelNegamax extends ParallelNegamax<IAMove> {
+
+        private static final int ROOT_MOVES = 3;
+        private static final int BRANCHING_FACTOR = 4;
+        private static final double[] VALUES = {0, 10, 5};
+        private static final long TIMEOUT_MILLIS = 10000;
+        private static final long RAISE_MILLIS = 100;
+
+        private final int[] path = new int[DEPTH];
+        private int ply;
+        // shared with clones
+        private final AtomicLong[] evaluations;
+        private final CountDownLatch started;
+        private final long gate;
+
+        /**
+         * @param parallelism the number of workers
+         * @param gate the number of evaluations of the second root move to wait for or 0 not to wait
+         */
+        private GatedParallelNegamax(int parallelism, long gate) {
+            super(parallelism);
+            this.evaluations = new AtomicLong[ROOT_MOVES];
+            for (int i = 0; i < ROOT_MOVES; i++) {
+                evaluations[i] = new AtomicLong();
+            }
+            this.started = new CountDownLatch(1);
+            this.gate = gate;
+        }
+
+        private GatedParallelNegamax(GatedParallelNegamax ia) {
+            super(ia);
+            System.arraycopy(ia.path, 0, path, 0, DEPTH);
+            ply = ia.ply;
+            evaluations = ia.evaluations;
+            started = ia.started;
+            gate = ia.gate;
+        }
+
+        @Override
+        public ParallelNegamax<IAMove> clone() {
+            return new GatedParallelNegamax(this);
+        }
+
+        @Override
+        protected int getMinSplitDepth() {
+            return DEPTH;
+        }
+
+        @Override
+        public boolean isOver() {
+            return false;
+        }
+
+        @Override
+        public void makeMove(IAMove move) {
+            path[ply++] = move.getPosition();
+        }
+
+        @Override
+        public void unmakeMove(IAMove move) {
+            ply--;
+        }
+
+        @Override
+        public Iterable<IAMove> getPossibleMoves() {
+            List<IAMove> moves = new LinkedList<>();
+            for (int i = 0; i < (ply == 0 ? ROOT_MOVES : BRANCHING_FACTOR); i++) {
+                moves.add(new IAMove(i));
+            }
+            return moves;
+        }
+
+        @Override
+        public double evaluate() {
+            int root = path[0];
+            long count = evaluations[root].incrementAndGet();
+            if (gate > 0 && count == 1) {
+                try {
+                    if (root == 1) {
+                        // let the last root move start with the initial alpha
+                        started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    } else if (root == 2) {
+                        started.countDown();
+                        long end = System.currentTimeMillis() + TIMEOUT_MILLIS;
+                        while (evaluations[1].get() < gate && System.currentTimeMillis() < end) {
+                            Thread.sleep(1);
+                        }
+                        // let the second root move raise alpha
+                        Thread.sleep(RAISE_MILLIS);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return ply % 2 == 0 ? VALUES[root] : -VALUES[root];
+        }
+
+        @Override
+        public double maxEvaluateValue() {
+            return 100;
+        }
+
+        @Override
+        public void next() {
+        }
+
+        @Override
+        public void previous() {
+        }
+    }
+
+    @Test
+    public void shouldNarrowRunningSearchesWhenBrothersRaiseAlpha() {
+        // a single worker searches the last root move once the second one raised alpha
+        GatedParallelNegamax sequential = new GatedParallelNegamax(1, 0);
+        IAMove expected = sequential.getBestMoves(DEPTH, sequential.getPossibleMoves()).get(0);
+        // two workers search the last root move while the second one raises alpha
+        GatedParallelNegamax parallel = new GatedParallelNegamax(2, sequential.evaluations[1].get());
+        IAMove actual = parallel.getBestMoves(DEPTH, parallel.getPossibleMoves()).get(0);
+        assertEquals("Best move must be the same.", expected.getPosition(), actual.getPosition());
+        assertEquals("Best value must be the same.", expected.value, actual.value, 0);
+        assertEquals("Running searches must use the raised alpha.",
+                sequential.evaluations[2].get(), parallel.evaluations[2].get());
+    }
+
+    @Test
+    public void shouldShareAlphaAndCancelSplitPoints() {
+        // a single worker searches the brothers of a split point one after the other :
+        // each brother starts with the alpha raised by the previous ones
+        // and the brothers following a cutoff are cancelled as alpha-beta would prune them
+        BaseParallelNegamax parallel = new BaseParallelNegamax(1, 1, true);
+        BestSecondNegamax sequential = new BestSecondNegamax();
+        IAMove expected = sequential.getBestMoves(DEPTH).get(0);
+        IAMove actual = parallel.getBestMoves(DEPTH).get(0);
+        assertEquals("Best move must be the same.", expected.getPosition(), actual.getPosition());
+        assertEquals("Best value must be the same.", expected.value, actual.value, 0);
+        assertEquals("Split points must not search more positions than alpha-beta.", sequential.evaluations, parallel.getEvaluations());
+    }
+
+    private static void assertSameBestMove(IAMove expected, List<IAMove> moves) {
+        assertEquals("Best move must not depend on the window.", expected.getPosition(), moves.get(0).getPosition());
+        assertEquals("Best value must not depend on the window.", expected.value, moves.get(0).value, 0);
+    }
+
+    @Test
+    public void shouldResearchWhenScoreFallsOutsideOfAspirationWindow() {
+        ParallelNegamax<IAMove> parallel = new BaseParallelNegamax() {
+            @Override
+            protected double getAspirationWindow() {
+                return 1;
+            }
+        };
+        IAMove expected = new BaseNegamax().getBestMoves(SHALLOW_DEPTH).get(0);
+        assertSameBestMove(expected, parallel.getBestMoves(SHALLOW_DEPTH, expected.value, parallel.getPossibleMoves()));
+        assertEquals("A window around the exact score must not fail.", 0, parallel.getAspirationResearches());
+        assertSameBestMove(expected, parallel.getBestMoves(SHALLOW_DEPTH, expected.value + 10, parallel.getPossibleMoves()));
+        long researches = parallel.getAspirationResearches();
+        assertTrue("A window above the score must fail low.", researches > 0);
+        assertSameBestMove(expected, parallel.getBestMoves(SHALLOW_DEPTH, expected.value - 10, parallel.getPossibleMoves()));
+        assertTrue("A window below the score must fail high.", parallel.getAspirationResearches() > researches);
+    }
+
+    @Test
+    public void shouldSplitAtMinSplitDepth() {
+        BaseParallelNegamax parallel = new BaseParallelNegamax(2);
+        IAMove expected = new BaseNegamax().getBestMoves(SHALLOW_DEPTH).get(0);
+        IAMove actual = parallel.getBestMoves(SHALLOW_DEPTH).get(0);
+        assertEquals("Best move must be the same.", expected.getPosition(), actual.getPosition());
+        assertEquals("Best value must be the same.", expected.value, actual.value, 0);
+        assertEquals("Split depth must be the min split depth.", 2, parallel.getSplitDepth());
+    }
+
+    @Test
+    public void shouldNotSplitNodesOfCheapLeaves() {
+        BaseParallelNegamax parallel = new BaseParallelNegamax(ParallelNegamax.ADAPTIVE_SPLIT_DEPTH);
+        IAMove expected = new BaseNegamax().getBestMoves(SHALLOW_DEPTH).get(0);
+        // running averages need a few searches to forget the first clones or a pause of the JVM
+        for (int i = 0; i < SEARCHES && (i == 0 || parallel.getSplitDepth() <= 1); i++) {
+            IAMove actual = parallel.getBestMoves(SHALLOW_DEPTH).get(0);
+            assertEquals("Best move must be the same.", expected.getPosition(), actual.getPosition());
+            assertEquals("Best value must be the same.", expected.value, actual.value, 0);
+        }
+        assertTrue("Evaluating a position is not worth a clone.", parallel.getSplitDepth() > 1);
+    }
+
+    @Test
+    public void shouldSplitNodesOfExpensiveLeaves() {
+        BaseParallelNegamax parallel = new SlowEvaluationParallelNegamax();
+        BaseNegamax sequential = new BaseNegamax();
+        // keep a few cells only as evaluations are slow
+        for (int cell = 0; cell < Logic.GRID_SIZE - SLOW_CELLS; cell++) {
+            parallel.makeMove(new IAMove(cell));
+            sequential.makeMove(new IAMove(cell));
+        }
+        IAMove expected = sequential.getBestMoves(2).get(0);
+        for (int i = 0; i < SEARCHES && (i == 0 || parallel.getSplitDepth() != 1); i++) {
+            IAMove actual = parallel.getBestMoves(2).get(0);
+            assertEquals("Best move must be the same.", expected.getPosition(), actual.getPosition());
+            assertEquals("Best value must be the same.", expected.value, actual.value, 0);
+        }
+        assertEquals("Evaluating a position is worth a clone.", 1, parallel.getSplitDepth());
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j;
+
+import fr.avianey.minimax4j.ia.BaseNegamax;
+import fr.avianey.minimax4j.ia.BaseParallelNegamax;
+import fr.avianey.minimax4j.ia.IAMove;
+import fr.avianey.minimax4j.ia.Logic;
+import fr.avianey.minimax4j.ia.MTDfNoCollision;
+import fr.avianey.minimax4j.ia.TranspositionNegamaxNoCollision;
+import fr.avianey.minimax4j.ia.ZobristMTDf;
+import fr.avianey.minimax4j.impl.HeapTranspositionTable;
+import fr.avianey.minimax4j.impl.Negamax;
+import fr.avianey.minimax4j.impl.ParallelNegamax;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PrincipalVariationTest {
+
+    private static final int DEPTH = 4;
+
+    @Test
+    public void shouldNegamaxPrincipalVariationLeadToBestMoveValue() {
+        Negamax<IAMove> ia = new BaseNegamax();
+        for (int turn = 0; turn < 4; turn++) {
+            List<IAMove> moves = ia.getBestMoves(DEPTH, ia.getPossibleMoves());
+            assertPrincipalVariation(ia, moves, ia.getPrincipalVariation());
+            ia.makeMove(new IAMove(moves.get(0).getPosition()));
+        }
+    }
+
+    @Test
+    public void shouldParallelNegamaxPrincipalVariationLeadToBestMoveValue() {
+        ParallelNegamax<IAMove> ia = new BaseParallelNegamax();
+        for (int turn = 0; turn < 4; turn++) {
+            List<IAMove> moves = ia.getBestMoves(DEPTH, ia.getPossibleMoves());
+            assertPrincipalVariation(ia, moves, ia.getPrincipalVariation());
+            ia.makeMove(new IAMove(moves.get(0).getPosition()));
+        }
+    }
+
+    @Test
+    public void shouldTranspositionPrincipalVariationStartWithBestMove() {
+        Negamax<IAMove> ia = new TranspositionNegamaxNoCollision();
+        for (int turn = 0; turn < 4; turn++) {
+            List<IAMove> moves = ia.getBestMoves(DEPTH, ia.getPossibleMoves());
+            List<IAMove> pv = ia.getPrincipalVariation();
+            assertTrue("Principal variation must not exceed the search depth.", !pv.isEmpty() && pv.size() <= DEPTH);
+            assertEquals("Principal variation must start with the best move.", moves.get(0).getPosition(), pv.get(0).getPosition());
+            ia.makeMove(new IAMove(moves.get(0).getPosition()));
+        }
+    }
+
+    @Test
+    public void shouldMTDfPrincipalVariationLeadToBestMoveValue() {
+        Negamax<IAMove> ia = new ZobristMTDf(new HeapTranspositionTable(1 << 20)) {
+            @Override
+            protected int getMoveIdCount() {
+                return Logic.GRID_SIZE;
+            }
+            @Override
+            protected int getMoveId(IAMove move) {
+                return move.getPosition();
+            }
+        };
+        for (int turn = 0; turn < 4; turn++) {
+            List<IAMove> moves = ia.getBestMoves(DEPTH, ia.getPossibleMoves());
+            assertPrincipalVariation(ia, moves, ia.getPrincipalVariation());
+            ia.makeMove(new IAMove(moves.get(0).getPosition()));
+        }
+    }
+
+    @Test
+    public void shouldMTDfPrincipalVariationStartWithBestMoveWithoutMoveIds() {
+        Negamax<IAMove> ia = new MTDfNoCollision();
+        List<IAMove> moves = ia.getBestMoves(DEPTH, ia.getPossibleMoves());
+        List<IAMove> pv = ia.getPrincipalVariation();
+        assertEquals("Principal variation must only hold the best move.", 1, pv.size());
+        assertEquals("Principal variation must start with the best move.", moves.get(0).getPosition(), pv.get(0).getPosition());
+    }
+
+    private static void assertPrincipalVariation(IA<IAMove> ia, List<IAMove> moves, List<IAMove> pv) {
+        assertEquals("Principal variation must reach the search depth.", DEPTH, pv.size());
+        assertEquals("Principal variation must start with the best move.", moves.get(0).getPosition(), pv.get(0).getPosition());
+        for (IAMove move : pv) {
+            if (move == null) {
+                ia.next();
+            } else {
+                ia.makeMove(move);
+            }
+        }
+        double value = DEPTH % 2 == 0 ? ia.evaluate() : -ia.evaluate();
+        for (int i = pv.size() - 1; i >= 0; i--) {
+            if (pv.get(i) == null) {
+                ia.previous();
+            } else {
+                ia.unmakeMove(pv.get(i));
+            }
+        }
+        assertEquals("Principal variation must lead to the best move value.", moves.get(0).value, value, 0);
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j;
+
+import fr.avianey.minimax4j.ia.IAMove;
+import fr.avianey.minimax4j.ia.Logic;
+import fr.avianey.minimax4j.ia.ProofNumberSearchNoCollision;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProofNumberSearchTest {
+
+    private ProofNumberSearchNoCollision IA;
+
+    @Before
+    public void setUp() {
+        IA = new ProofNumberSearchNoCollision();
+        // highest cells are taken in turn except for cell 38 which is taken last
+        // leaving cells 0 to 5 to the first player : only the highest one wins
+        for (int cell = Logic.GRID_SIZE - 1; cell > 5; cell--) {
+            if (cell != 38) {
+                IA.makeMove(new IAMove(cell));
+            }
+        }
+        IA.makeMove(new IAMove(38));
+    }
+
+    @Test
+    public void shouldProveTheOnlyWinningMove() {
+        List<IAMove> moves = IA.getBestMoves(1);
+        assertEquals("Best move must be the winning move.", 5, moves.get(0).getPosition());
+        assertEquals("Winning move must be proven.", 1, moves.get(0).value, 0);
+        assertEquals("Position must be proven won.", Outcome.WIN, IA.solve());
+    }
+
+    @Test
+    public void shouldProveLoss() {
+        IA.makeMove(new IAMove(5));
+        assertEquals("Position must be proven lost.", Outcome.LOSS, IA.solve());
+        for (IAMove move : IA.getBestMoves(1)) {
+            assertEquals("Every move must be proven lost.", -1, move.value, 0);
+        }
+    }
+
+    @Test
+    public void shouldNotSolveBeyondNodeBudget() {
+        IA = new ProofNumberSearchNoCollision() {
+            @Override
+            protected long getMaxNodes() {
+                return 100;
+            }
+        };
+        assertEquals("Opening must not be solved with 100 nodes.", Outcome.UNKNOWN, IA.solve());
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j;
+
+import fr.avianey.minimax4j.ia.BaseNegamax;
+import fr.avianey.minimax4j.ia.IAMove;
+import fr.avianey.minimax4j.ia.Logic;
+import fr.avianey.minimax4j.impl.Negamax;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PruningTest {
+
+    private static final int DEPTH = 3;
+    private static final int TURNS = 8;
+
+    /**
+     * Play both engines side by side and check that they agree on the best move and its value.
+     */
+    private static void assertSameBestMoves(Negamax<IAMove> pruned) {
+        BaseNegamax negamax = new BaseNegamax();
+        for (int turn = 0; turn < TURNS; turn++) {
+            IAMove expected = negamax.getBestMoves(DEPTH).get(0);
+            IAMove actual = pruned.getBestMoves(DEPTH).get(0);
+            assertEquals("Pruning must not change the best move.", expected.getPosition(), actual.getPosition());
+            assertEquals("Pruning must not change the value of the best move.", expected.value, actual.value, 0);
+            IAMove move = new IAMove(expected.getPosition());
+            negamax.makeMove(move);
+            pruned.makeMove(move);
+        }
+    }
+
+    /**
+     * Highest cells first so that the best move is searched first.
+     */
+    private static Iterable<IAMove> highestFirst(Iterable<IAMove> moves) {
+        List<IAMove> ordered = new ArrayList<>();
+        for (IAMove move : moves) {
+            ordered.add(0, move);
+        }
+        return ordered;
+    }
+
+    private static boolean hasFewMovesLeft(IA<IAMove> ia, int count) {
+        for (IAMove move : ia.getPossibleMoves()) {
+            if (--count < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void shouldCutOffAfterNullMove() {
+        Negamax<IAMove> ia = new BaseNegamax() {
+            @Override
+            public Iterable<IAMove> getPossibleMoves() {
+                return highestFirst(super.getPossibleMoves());
+            }
+            @Override
+            protected int getNullMoveReduction() {
+                return 1;
+            }
+            @Override
+            protected boolean isNullMoveAllowed() {
+                // passing changes who plays the last cell
+                return !hasFewMovesLeft(this, 4);
+            }
+        };
+        assertSameBestMoves(ia);
+        assertTrue("Passing must refute the weakest moves.", ia.getNullMoveCutoffs() > 0);
+    }
+
+    @Test
+    public void shouldCutOffAfterNullMoveWithMoveOrdering() {
+        Negamax<IAMove> ia = new BaseNegamax() {
+            @Override
+            public Iterable<IAMove> getPossibleMoves() {
+                return highestFirst(super.getPossibleMoves());
+            }
+            @Override
+            protected int getNullMoveReduction() {
+                return 1;
+            }
+            @Override
+            protected boolean isNullMoveAllowed() {
+                return !hasFewMovesLeft(this, 4);
+            }
+            @Override
+            protected int getMoveIdCount() {
+                return Logic.GRID_SIZE;
+            }
+            @Override
+            protected int getMoveId(IAMove move) {
+                return move.getPosition();
+            }
+        };
+        assertSameBestMoves(ia);
+        assertTrue("Passing must refute the weakest moves.", ia.getNullMoveCutoffs() > 0);
+    }
+
+    @Test
+    public void shouldPruneFutileMovesAndRazorHopelessNodes() {
+        Negamax<IAMove> ia = new BaseNegamax() {
+            @Override
+            public Iterable<IAMove> getPossibleMoves() {
+                return highestFirst(super.getPossibleMoves());
+            }
+            @Override
+            protected double getFutilityMargin(int depth) {
+                return depth <= 2 ? 10 : Double.POSITIVE_INFINITY;
+            }
+            @Override
+            protected double getRazoringMargin(int depth) {
+                return depth <= 2 ? 10 : Double.POSITIVE_INFINITY;
+            }
+        };
+        assertSameBestMoves(ia);
+        assertTrue("Quiet moves of hopeless nodes must be pruned.", ia.getFutilityPrunes() > 0);
+        assertTrue("Hopeless nodes must be razored.", ia.getRazoringPrunes() > 0);
+    }
+
+    @Test
+    public void shouldKeepReductionsOfLateMoves() {
+        Negamax<IAMove> ia = new BaseNegamax() {
+            @Override
+            public Iterable<IAMove> getPossibleMoves() {
+                return highestFirst(super.getPossibleMoves());
+            }
+            @Override
+            protected int getLateMoveReduction(int depth, int index) {
+                return depth >= 2 && index >= 2 ? 1 : 0;
+            }
+        };
+        assertSameBestMoves(ia);
+        assertTrue("Late moves must be reduced.", ia.getLateMoveReductions() > 0);
+        assertTrue("Reduced searches of worse moves must mostly fail low.", ia.getLateMoveReductions() > ia.getLateMoveResearches());
+    }
+
+}
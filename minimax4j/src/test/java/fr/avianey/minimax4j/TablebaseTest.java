@@ -0,0 +1,191 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j;
+
+import fr.avianey.minimax4j.ia.BaseNegamax;
+import fr.avianey.minimax4j.ia.IAMove;
+import fr.avianey.minimax4j.ia.TablebaseNegamax;
+import fr.avianey.minimax4j.tablebase.Tablebase;
+import fr.avianey.minimax4j.tablebase.TablebaseGenerator;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static fr.avianey.minimax4j.ia.Logic.GRID_SIZE;
+import static fr.avianey.minimax4j.ia.TablebaseNegamax.FREE_CELLS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TablebaseTest {
+
+    @ClassRule
+    public static final TemporaryFolder FOLDER = new TemporaryFolder();
+
+    private static Tablebase tablebase;
+
+    @BeforeClass
+    public static void generate() throws IOException {
+        Path file = FOLDER.newFile("endgame.tb").toPath();
+        TablebaseNegamax ia = new TablebaseNegamax();
+        new TablebaseGenerator<>(ia, ia).generate(file);
+        tablebase = Tablebase.open(file);
+    }
+
+    @AfterClass
+    public static void close() throws IOException {
+        tablebase.close();
+    }
+
+    @Test
+    public void shouldTablebaseMatchExhaustiveSearch() {
+        TablebaseNegamax ia = new TablebaseNegamax();
+        ia.playOpening();
+        BaseNegamax negamax = new BaseNegamax();
+        for (int i = 0; i < GRID_SIZE - FREE_CELLS; i++) {
+            negamax.makeMove(new IAMove(i));
+        }
+        // check every position reachable in two plies
+        assertOutcome(ia, negamax, 2);
+    }
+
+    @Test
+    public void shouldNegamaxProbeTablebase() {
+        TablebaseNegamax ia = new TablebaseNegamax();
+        ia.playOpening();
+        List<IAMove> exact = ia.getBestMoves(FREE_CELLS, ia.getPossibleMoves());
+        ia.setTablebase(tablebase);
+        List<IAMove> moves = ia.getBestMoves(FREE_CELLS, ia.getPossibleMoves());
+        assertTrue("Tablebase must be probed.", ia.getTablebaseHits() > 0);
+        assertEquals("Tablebase must not change the result of the best move.",
+                Math.signum(exact.get(0).value), Math.signum(moves.get(0).value), 0);
+    }
+
+    @Test
+    public void shouldProbeTablebaseAtTheHorizonOnly() {
+        CountingTablebaseNegamax ia = new CountingTablebaseNegamax(false);
+        ia.playOpening();
+        ia.setTablebase(tablebase);
+        ia.getBestMoves(2, ia.getPossibleMoves());
+        assertTrue("Tablebase must be probed at the horizon.", ia.getTablebaseHits() > 0);
+        assertTrue("Interior nodes must be searched.", ia.moves > FREE_CELLS);
+    }
+
+    @Test
+    public void shouldProbeTablebaseAtInteriorNodes() {
+        CountingTablebaseNegamax ia = new CountingTablebaseNegamax(true);
+        ia.playOpening();
+        ia.setTablebase(tablebase);
+        ia.getBestMoves(2, ia.getPossibleMoves());
+        assertEquals("Tablebase must resolve the children of the root.", FREE_CELLS, ia.getTablebaseHits());
+        assertEquals("Children of the root must not be searched.", FREE_CELLS, ia.moves);
+    }
+
+    @Test
+    public void shouldTablebaseWinFailHighInsideTheBounds() {
+        CountingTablebaseNegamax ia = new CountingTablebaseNegamax(true) {
+            @Override
+            protected double getAspirationWindow() {
+                return 1;
+            }
+        };
+        ia.playOpening();
+        if (tablebase.probe(ia.getIndex()) != Outcome.WIN) {
+            // every move of a lost position wins for the opponent
+            ia.makeMove(ia.getPossibleMoves().iterator().next());
+        }
+        assertEquals(Outcome.WIN, tablebase.probe(ia.getIndex()));
+        ia.setTablebase(tablebase);
+        // the children of the root are lost at ply 1
+        double win = ia.maxEvaluateValue() - 2;
+        // the aspiration window ends at the score of the win
+        List<IAMove> moves = ia.getBestMoves(2, win - 1, ia.getPossibleMoves());
+        assertEquals("Tablebase win must fail high.", 1, ia.getAspirationResearches());
+        assertEquals("Tablebase win must lie inside the bounds.", win, moves.get(0).value, 0);
+    }
+
+    private static void assertOutcome(TablebaseNegamax ia, BaseNegamax negamax, int plies) {
+        int depth = 0;
+        for (IAMove move : ia.getPossibleMoves()) {
+            depth++;
+        }
+        Outcome expected = Outcome.LOSS;
+        if (depth == 0) {
+            if (ia.evaluate() > 0) {
+                expected = Outcome.WIN;
+            }
+        } else if (negamax.getBestMoves(depth, negamax.getPossibleMoves()).get(0).value > 0) {
+            expected = Outcome.WIN;
+        }
+        assertEquals("Tablebase must give the perfect play result.", expected, tablebase.probe(ia.getIndex()));
+        if (plies > 0) {
+            for (IAMove move : ia.getPossibleMoves()) {
+                ia.makeMove(move);
+                negamax.makeMove(move);
+                assertOutcome(ia, negamax, plies - 1);
+                negamax.unmakeMove(move);
+                ia.unmakeMove(move);
+            }
+        }
+    }
+
+    /**
+     * Count the moves played by the search.
+     */
+    private static class CountingTablebaseNegamax extends TablebaseNegamax {
+
+        private final boolean interior;
+        private int moves;
+
+        private CountingTablebaseNegamax(boolean interior) {
+            this.interior = interior;
+        }
+
+        @Override
+        public void playOpening() {
+            super.playOpening();
+            moves = 0;
+        }
+
+        @Override
+        public void makeMove(IAMove move) {
+            moves++;
+            super.makeMove(move);
+        }
+
+        @Override
+        protected boolean isTablebaseProbed(int depth) {
+            return interior || super.isTablebaseProbed(depth);
+        }
+    }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *  
+ * The MIT License (MIT)
+
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j;
+
+import fr.avianey.minimax4j.ia.BaseLazySMPNegamax;
+import fr.avianey.minimax4j.impl.HeapTranspositionTable;
+import fr.avianey.minimax4j.impl.OffHeapTranspositionTable;
+import fr.avianey.minimax4j.impl.TranspositionTable;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TranspositionTableTest {
+
+    private static final int SIZE = 1 << 10;
+
+    private static List<TranspositionTable> tables(boolean keyed) {
+        return Arrays.asList(
+                new HeapTranspositionTable(SIZE, keyed),
+                new OffHeapTranspositionTable(SIZE, keyed));
+    }
+
+    /**
+     * A hash mapping to the same entry (or bucket) as the other ones with the given high bits
+     */
+    private static long hash(int check) {
+        return ((long) check << 32) | 0x2A;
+    }
+
+    @Test
+    public void shouldProbeStoredEntry() {
+        for (TranspositionTable table : tables(false)) {
+            TranspositionTable.Entry entry = new TranspositionTable.Entry();
+            assertFalse(table.probe(hash(1), entry));
+            table.store(hash(1), -1.5, 3, TranspositionTable.FLAG_LOWERBOUND);
+            assertTrue(table.probe(hash(1), entry));
+            assertEquals(-1.5, entry.score, 0);
+            assertEquals(3, entry.depth);
+            assertEquals(TranspositionTable.FLAG_LOWERBOUND, entry.flag);
+            assertFalse("Positions are verified through the high bits of the hash.", table.probe(hash(2), entry));
+            table.clear();
+            assertFalse(table.probe(hash(1), entry));
+        }
+    }
+
+    @Test
+    public void shouldKeepDeeperEntriesOfCurrentSearchOnly() {
+        for (TranspositionTable table : tables(false)) {
+            TranspositionTable.Entry entry = new TranspositionTable.Entry();
+            table.store(hash(1), 1, 5, TranspositionTable.FLAG_EXACT);
+            table.store(hash(1), 2, 2, TranspositionTable.FLAG_EXACT);
+            assertTrue(table.probe(hash(1), entry));
+            assertEquals(5, entry.depth);
+            table.nextAge();
+            table.store(hash(1), 2, 2, TranspositionTable.FLAG_EXACT);
+            assertTrue(table.probe(hash(1), entry));
+            assertEquals(2, entry.depth);
+        }
+    }
+
+    @Test
+    public void shouldVerifyKeys() {
+        for (TranspositionTable table : tables(true)) {
+            TranspositionTable.Entry entry = new TranspositionTable.Entry();
+            table.store(hash(1), "a", 1, 1, TranspositionTable.FLAG_EXACT);
+            assertTrue(table.probe(hash(1), "a", entry));
+            assertFalse(table.probe(hash(1), "b", entry));
+        }
+    }
+
+    @Test
+    public void shouldBucketCollidingPositions() {
+        OffHeapTranspositionTable table = new OffHeapTranspositionTable(SIZE);
+        TranspositionTable.Entry entry = new TranspositionTable.Entry();
+        for (int check = 1; check <= 4; check++) {
+            table.store(hash(check), check, check, TranspositionTable.FLAG_EXACT);
+        }
+        for (int check = 1; check <= 4; check++) {
+            assertTrue(table.probe(hash(check), entry));
+            assertEquals(check, entry.depth);
+        }
+        // the shallowest entry is replaced
+        table.store(hash(5), 5, 5, TranspositionTable.FLAG_EXACT);
+        assertFalse(table.probe(hash(1), entry));
+        assertTrue(table.probe(hash(5), entry));
+        table.free();
+    }
+
+    @Test
+    public void shouldStoreShallowerEntriesInSecondTier() {
+        for (TranspositionTable table : Arrays.asList(
+                new HeapTranspositionTable(SIZE, false, TranspositionTable.ReplacementPolicy.TWO_TIER),
+                new OffHeapTranspositionTable(SIZE, false, TranspositionTable.ReplacementPolicy.TWO_TIER))) {
+            TranspositionTable.Entry entry = new TranspositionTable.Entry();
+            table.store(hash(1), 1, 5, TranspositionTable.FLAG_EXACT);
+            table.store(hash(2), 2, 2, TranspositionTable.FLAG_EXACT);
+            table.store(hash(3), 3, 3, TranspositionTable.FLAG_EXACT);
+            assertTrue("The depth preferred entry is kept.", table.probe(hash(1), entry));
+            assertFalse("The always replaced entry is replaced.", table.probe(hash(2), entry));
+            assertTrue(table.probe(hash(3), entry));
+            table.nextAge();
+            table.store(hash(4), 4, 1, TranspositionTable.FLAG_EXACT);
+            assertFalse("Entries of older searches are replaced.", table.probe(hash(1), entry));
+            assertTrue(table.probe(hash(4), entry));
+        }
+    }
+
+    @Test
+    public void shouldEvictEntriesOfOlderSearchesFirst() {
+        TranspositionTable table = new HeapTranspositionTable(SIZE, false, TranspositionTable.ReplacementPolicy.BUCKET);
+        TranspositionTable.Entry entry = new TranspositionTable.Entry();
+        for (int check = 1; check <= 3; check++) {
+            table.store(hash(check), check, 9, TranspositionTable.FLAG_EXACT);
+        }
+        table.nextAge();
+        table.store(hash(4), 4, 1, TranspositionTable.FLAG_EXACT);
+        // a deep entry of the previous search
+        // is replaced rather than a shallow entry of the current one
+        table.store(hash(5), 5, 1, TranspositionTable.FLAG_EXACT);
+        assertFalse(table.probe(hash(1), entry));
+        assertTrue(table.probe(hash(4), entry));
+        assertTrue(table.probe(hash(5), entry));
+    }
+
+    @Test
+    public void shouldNotTakeEntriesOfWrappedAgeForCurrentOnes() {
+        for (TranspositionTable table : tables(false)) {
+            TranspositionTable.Entry entry = new TranspositionTable.Entry();
+            table.store(hash(1), 1, 5, TranspositionTable.FLAG_EXACT);
+            for (int i = 0; i < 32; i++) {
+                table.nextAge();
+            }
+            table.store(hash(1), 2, 2, TranspositionTable.FLAG_EXACT);
+            assertTrue(table.probe(hash(1), entry));
+            assertEquals("An entry stored 32 searches ago is replaced.", 2, entry.depth);
+        }
+    }
+
+    @Test
+    public void shouldKeepBestMoveOfPosition() {
+        for (TranspositionTable table : tables(false)) {
+            TranspositionTable.Entry entry = new TranspositionTable.Entry();
+            table.store(hash(1), null, 1, 1, TranspositionTable.FLAG_LOWERBOUND, 7);
+            assertTrue(table.probe(hash(1), entry));
+            assertEquals(7, entry.move);
+            // a fail low doesn't know the best move
+            table.store(hash(1), null, 0, 2, TranspositionTable.FLAG_UPPERBOUND, -1);
+            assertTrue(table.probe(hash(1), entry));
+            assertEquals(2, entry.depth);
+            assertEquals(7, entry.move);
+            table.store(hash(2), 1, 3, TranspositionTable.FLAG_UPPERBOUND);
+            assertTrue(table.probe(hash(2), entry));
+            assertEquals(-1, entry.move);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotProbeFreedTable() {
+        OffHeapTranspositionTable table = OffHeapTranspositionTable.ofMegabytes(1, false);
+        assertEquals((1 << 20) / 16, table.size());
+        table.free();
+        table.probe(hash(1), new TranspositionTable.Entry());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotShareKeyedTableBetweenThreads() {
+        new BaseLazySMPNegamax(1, new HeapTranspositionTable(1 << 10, true));
+    }
+
+}
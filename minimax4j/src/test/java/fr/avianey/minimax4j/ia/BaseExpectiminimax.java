@@ -0,0 +1,174 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.ia;
+
+import fr.avianey.minimax4j.impl.Expectiminimax;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static fr.avianey.minimax4j.ia.Logic.GRID_SIZE;
+import static fr.avianey.minimax4j.ia.Logic.MAX_SCORE;
+
+/**
+ * Version of the test {@code BaseNegamax} where a biased coin is tossed before each move.<br/>
+ * The coin doesn't change the grid : unless heads grants a bonus to the player to move,
+ * expected values equal {@code BaseNegamax} values.
+ *
+ * @author antoine vianey
+ */
+public class BaseExpectiminimax extends Expectiminimax<IAMove> implements Cleanable {
+
+    private static final IAMove HEADS = new IAMove(-1);
+    private static final IAMove TAILS = new IAMove(-2);
+    private static final List<IAMove> COIN = Arrays.asList(HEADS, TAILS);
+
+    private final Logic logic;
+    private final BaseState state;
+    private final boolean[] tossed = new boolean[GRID_SIZE + 1];
+    private final double bonus;
+    // bonuses granted to the first player minus bonuses granted to the second player
+    private double bonuses;
+
+    public BaseExpectiminimax() {
+        this(0);
+    }
+
+    public BaseExpectiminimax(double bonus) {
+        logic = new Logic();
+        state = new BaseState();
+        this.bonus = bonus;
+    }
+
+    @Override
+    public void clean() {
+        state.clean();
+        Arrays.fill(tossed, false);
+        bonuses = 0;
+    }
+
+    /**
+     * Plain expectimax search without any pruning.
+     * @param depth the search depth
+     * @return the expected value of the current position for the current player
+     */
+    public double expectimax(int depth) {
+        if (depth == 0 || isOver()) {
+            return evaluate();
+        }
+        Iterable<IAMove> outcomes = getChanceOutcomes();
+        if (outcomes != null) {
+            double expected = 0;
+            for (IAMove outcome : outcomes) {
+                makeMove(outcome);
+                expected += getProbability(outcome) * expectimax(depth);
+                unmakeMove(outcome);
+            }
+            return expected;
+        }
+        double best = -maxEvaluateValue();
+        for (IAMove move : getPossibleMoves()) {
+            makeMove(move);
+            best = Math.max(best, -expectimax(depth - 1));
+            unmakeMove(move);
+        }
+        return best;
+    }
+
+    private double getBonus(IAMove outcome) {
+        if (outcome != HEADS) {
+            return 0;
+        }
+        return state.getCurrentPlayer() == 0 ? bonus : -bonus;
+    }
+
+    @Override
+    protected Iterable<IAMove> getChanceOutcomes() {
+        return tossed[state.getTurn()] ? null : COIN;
+    }
+
+    @Override
+    protected double getProbability(IAMove outcome) {
+        return outcome == HEADS ? 0.25 : 0.75;
+    }
+
+    @Override
+    protected double getValueBound() {
+        return 2 * MAX_SCORE + GRID_SIZE * bonus;
+    }
+
+    @Override
+    public boolean isOver() {
+        return logic.isOver(state);
+    }
+
+    @Override
+    public void makeMove(IAMove move) {
+        if (move.getPosition() < 0) {
+            tossed[state.getTurn()] = true;
+            bonuses += getBonus(move);
+        } else {
+            state.makeMove(move);
+        }
+    }
+
+    @Override
+    public void unmakeMove(IAMove move) {
+        if (move.getPosition() < 0) {
+            tossed[state.getTurn()] = false;
+            bonuses -= getBonus(move);
+        } else {
+            state.unmakeMove(move);
+        }
+    }
+
+    @Override
+    public Iterable<IAMove> getPossibleMoves() {
+        return logic.getPossibleMoves(state);
+    }
+
+    @Override
+    public double evaluate() {
+        double value = logic.evaluate(state);
+        return state.getCurrentPlayer() == 0 ? value + bonuses : value - bonuses;
+    }
+
+    @Override
+    public double maxEvaluateValue() {
+        return logic.maxEvaluateValue();
+    }
+
+    @Override
+    public void next() {
+        state.next();
+    }
+
+    @Override
+    public void previous() {
+        state.previous();
+    }
+}
@@ -28,6 +28,8 @@ package fr.avianey.minimax4j.ia;
 
 import fr.avianey.minimax4j.impl.ParallelNegamax;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Parallel version of the test {@code BasicMinimax}.
  *
@@ -37,16 +39,47 @@ public class BaseParallelNegamax extends ParallelNegamax<IAMove> implements Clea
 
     private final Logic logic;
     private final BaseState state;
+    private final int minSplitDepth;
+    private final boolean bestSecond;
+    // shared with clones
+    private final AtomicLong evaluations;
 
     public BaseParallelNegamax() {
+        this(1);
+    }
+
+    public BaseParallelNegamax(int minSplitDepth) {
+        logic = new Logic();
+        state = new BaseState();
+        this.minSplitDepth = minSplitDepth;
+        this.bestSecond = false;
+        this.evaluations = new AtomicLong();
+    }
+
+    public BaseParallelNegamax(int parallelism, int minSplitDepth, boolean bestSecond) {
+        super(parallelism);
         logic = new Logic();
         state = new BaseState();
+        this.minSplitDepth = minSplitDepth;
+        this.bestSecond = bestSecond;
+        this.evaluations = new AtomicLong();
     }
 
-    private BaseParallelNegamax(BaseParallelNegamax ia) {
+    protected BaseParallelNegamax(BaseParallelNegamax ia) {
         super(ia);
         logic = ia.logic;
         state = ia.state.clone();
+        minSplitDepth = ia.minSplitDepth;
+        bestSecond = ia.bestSecond;
+        evaluations = ia.evaluations;
+    }
+
+    /**
+     * The number of positions evaluated by this engine and its clones.
+     * @return the number of calls to {@link #evaluate()}
+     */
+    public long getEvaluations() {
+        return evaluations.get();
     }
 
     @Override
@@ -59,6 +92,11 @@ public class BaseParallelNegamax extends ParallelNegamax<IAMove> implements Clea
         return new BaseParallelNegamax(this);
     }
 
+    @Override
+    protected int getMinSplitDepth() {
+        return minSplitDepth;
+    }
+
     @Override
     public boolean isOver() {
         return logic.isOver(state);
@@ -76,11 +114,12 @@ public class BaseParallelNegamax extends ParallelNegamax<IAMove> implements Clea
 
     @Override
     public Iterable<IAMove> getPossibleMoves() {
-        return logic.getPossibleMoves(state);
+        return bestSecond ? logic.getPossibleMovesBestSecond(state) : logic.getPossibleMoves(state);
     }
 
     @Override
     public double evaluate() {
+        evaluations.incrementAndGet();
         return logic.evaluate(state);
     }
 
@@ -26,6 +26,7 @@
  */
 package fr.avianey.minimax4j.ia;
 
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -67,6 +68,31 @@ public final class Logic {
         return moves;
     }
 
+    /**
+     * Highest cells first except for the highest one, searched second.<br/>
+     * The best move is always the second one and the worst one comes last.
+     */
+    List<IAMove> getPossibleMovesBestSecond(BaseState state) {
+        LinkedList<IAMove> moves = new LinkedList<>();
+        for (IAMove move : getPossibleMoves(state)) {
+            moves.addFirst(move);
+        }
+        if (moves.size() > 1) {
+            moves.add(1, moves.removeFirst());
+        }
+        return moves;
+    }
+
+    /**
+     * Variant of the game where the second player has to pass its first move.
+     */
+    List<IAMove> getPossibleMovesWithPass(BaseState state) {
+        if (state.getTurn() == 1 && state.getCurrentPlayer() == 1) {
+            return Collections.emptyList();
+        }
+        return getPossibleMoves(state);
+    }
+
     double evaluate(BaseState state) {
         if (isOver(state)) {
             // check win
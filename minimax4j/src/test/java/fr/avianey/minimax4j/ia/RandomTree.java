@@ -0,0 +1,113 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.ia;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A game tree of uniform branching factor where each move grants random points to the player who plays it.<br/>
+ * Moves are listed in random order. Points and order only depend on the sequence of moves
+ * so that two trees built with the same seed are identical.
+ *
+ * @author antoine vianey
+ */
+public final class RandomTree {
+
+    private static final int BRANCHING_FACTOR = 8;
+    private static final int MAX_POINTS = 100;
+    private static final int MAX_PLIES = 64;
+
+    private final long[] hashes = new long[MAX_PLIES + 1];
+    private final int[] scores = new int[MAX_PLIES + 1];
+    private int ply;
+    private long evaluations;
+
+    /**
+     * @param seed the seed of the tree
+     */
+    public RandomTree(long seed) {
+        this.hashes[0] = seed;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    private int points(int move) {
+        return (int) Math.floorMod(mix(hashes[ply] ^ move), (long) MAX_POINTS);
+    }
+
+    public List<IAMove> getPossibleMoves() {
+        final long[] keys = new long[BRANCHING_FACTOR];
+        List<IAMove> moves = new ArrayList<>(BRANCHING_FACTOR);
+        for (int move = 0; move < BRANCHING_FACTOR; move++) {
+            keys[move] = mix(hashes[ply] ^ (move + BRANCHING_FACTOR));
+            moves.add(new IAMove(move));
+        }
+        Collections.sort(moves, new Comparator<IAMove>() {
+            @Override
+            public int compare(IAMove m1, IAMove m2) {
+                return Long.compare(keys[m1.getPosition()], keys[m2.getPosition()]);
+            }
+        });
+        return moves;
+    }
+
+    public void makeMove(IAMove move) {
+        // points of the player to move minus points of the opponent
+        scores[ply + 1] = -(scores[ply] + points(move.getPosition()));
+        hashes[ply + 1] = mix(hashes[ply] * 31 + move.getPosition());
+        ply++;
+    }
+
+    public void unmakeMove(IAMove move) {
+        ply--;
+    }
+
+    public double evaluate() {
+        evaluations++;
+        return scores[ply];
+    }
+
+    public double maxEvaluateValue() {
+        return MAX_POINTS * MAX_PLIES;
+    }
+
+    /**
+     * The number of positions evaluated so far.
+     * @return the number of calls to {@link #evaluate()}
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+}
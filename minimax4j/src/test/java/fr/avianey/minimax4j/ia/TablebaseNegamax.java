@@ -0,0 +1,166 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.ia;
+
+import fr.avianey.minimax4j.impl.Negamax;
+import fr.avianey.minimax4j.tablebase.PositionIndex;
+import fr.avianey.minimax4j.tablebase.Tablebase;
+
+import static fr.avianey.minimax4j.ia.Logic.EMPTY_CELL;
+import static fr.avianey.minimax4j.ia.Logic.GRID_SIZE;
+
+/**
+ * Index the endgame positions where only the last {@link #FREE_CELLS} cells
+ * may differ from the position reached by playing the cells in order.
+ */
+public class TablebaseNegamax extends Negamax<IAMove> implements Cleanable, PositionIndex {
+
+    public static final int FREE_CELLS = 8;
+    private static final int FIRST_FREE_CELL = GRID_SIZE - FREE_CELLS;
+
+    private final Logic logic;
+    private final BaseState state;
+    private Tablebase tablebase;
+
+    public TablebaseNegamax() {
+        logic = new Logic();
+        state = new BaseState();
+    }
+
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Play the cells in order until only the free cells are left.
+     */
+    public void playOpening() {
+        for (int i = 0; i < FIRST_FREE_CELL; i++) {
+            makeMove(new IAMove(i));
+        }
+    }
+
+    @Override
+    public void clean() {
+        state.clean();
+    }
+
+    @Override
+    public boolean isOver() {
+        return logic.isOver(state);
+    }
+
+    @Override
+    public void makeMove(IAMove move) {
+        state.makeMove(move);
+    }
+
+    @Override
+    public void unmakeMove(IAMove move) {
+        state.unmakeMove(move);
+    }
+
+    @Override
+    public Iterable<IAMove> getPossibleMoves() {
+        return logic.getPossibleMoves(state);
+    }
+
+    @Override
+    public double evaluate() {
+        return logic.evaluate(state);
+    }
+
+    @Override
+    public double maxEvaluateValue() {
+        return logic.maxEvaluateValue();
+    }
+
+    @Override
+    public void next() {
+        state.next();
+    }
+
+    @Override
+    public void previous() {
+        state.previous();
+    }
+
+    @Override
+    protected Tablebase getTablebase() {
+        return tablebase;
+    }
+
+    @Override
+    protected long getTablebaseIndex() {
+        return getIndex();
+    }
+
+    @Override
+    public long size() {
+        long size = 1;
+        for (int i = 0; i < FREE_CELLS; i++) {
+            size *= 3;
+        }
+        return size;
+    }
+
+    @Override
+    public long getIndex() {
+        if (state.turn < FIRST_FREE_CELL) {
+            return -1;
+        }
+        for (int i = 0; i < FIRST_FREE_CELL; i++) {
+            if (state.grid[i] != i % 2) {
+                return -1;
+            }
+        }
+        long index = 0;
+        for (int i = GRID_SIZE - 1; i >= FIRST_FREE_CELL; i--) {
+            index = index * 3 + state.grid[i] + 1;
+        }
+        return index;
+    }
+
+    @Override
+    public boolean setPosition(long index) {
+        int[] counts = new int[2];
+        for (int i = FIRST_FREE_CELL; i < GRID_SIZE; i++) {
+            int cell = (int) (index % 3) - 1;
+            index /= 3;
+            state.grid[i] = cell;
+            if (cell != EMPTY_CELL) {
+                counts[cell]++;
+            }
+        }
+        for (int i = 0; i < FIRST_FREE_CELL; i++) {
+            state.grid[i] = i % 2;
+        }
+        state.turn = FIRST_FREE_CELL + counts[0] + counts[1];
+        state.currentPlayer = state.turn % 2;
+        return counts[0] == counts[1] || counts[0] == counts[1] + 1;
+    }
+}
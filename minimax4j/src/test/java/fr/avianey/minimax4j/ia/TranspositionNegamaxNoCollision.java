@@ -27,6 +27,7 @@
 package fr.avianey.minimax4j.ia;
 
 import fr.avianey.minimax4j.impl.TranspositionNegamax;
+import fr.avianey.minimax4j.impl.TranspositionTable;
 
 import java.util.List;
 
@@ -40,6 +41,12 @@ public class TranspositionNegamaxNoCollision extends TranspositionNegamax<IAMove
         state = new TranspositionStateNoCollision();
     }
 
+    public TranspositionNegamaxNoCollision(TranspositionTable transpositionTable) {
+        super(transpositionTable);
+        logic = new Logic();
+        state = new TranspositionStateNoCollision();
+    }
+
     @Override
     public TranspositionStateNoCollision.NoCollision getTranspositionKey() {
         return state.getTranspositionValue();
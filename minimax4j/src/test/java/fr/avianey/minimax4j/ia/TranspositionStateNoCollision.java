@@ -35,9 +35,11 @@ class TranspositionStateNoCollision extends BaseState {
     public static class NoCollision {
         private final int hash;
         private final int[] grid;
+        private final int player;
 
-        public NoCollision(int hash, int[] grid) {
+        public NoCollision(int hash, int[] grid, int player) {
             this.hash = hash;
+            this.player = player;
             this.grid = new int[grid.length];
             System.arraycopy(grid, 0, this.grid, 0, grid.length);
         }
@@ -45,7 +47,7 @@ class TranspositionStateNoCollision extends BaseState {
         @Override
         public boolean equals(Object o) {
             NoCollision other = ((NoCollision) o);
-            if (other.hash != hash) {
+            if (other.hash != hash || other.player != player) {
                 return false;
             }
             for (int i = grid.length - 1; i >= 0; i--) {
@@ -76,7 +78,7 @@ class TranspositionStateNoCollision extends BaseState {
     }
 
     NoCollision getTranspositionValue() {
-        return new NoCollision(hash.hashCode(), super.grid);
+        return new NoCollision(hash.hashCode(), super.grid, currentPlayer);
     }
 
     Integer getGroup() {
@@ -0,0 +1,96 @@
+/*
+ * This file is part of minimax4j.
+ * <https://github.com/avianey/minimax4j>
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Antoine Vianey
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package fr.avianey.minimax4j.ia;
+
+import java.util.Random;
+
+import static fr.avianey.minimax4j.ia.Logic.GRID_SIZE;
+
+/**
+ * State maintaining a 64 bits Zobrist hash of the grid and the player to move.
+ * This class <b>IS NOT</b> safe to use in multiple concurrent threads.
+ */
+class ZobristState extends BaseState {
+
+    private static final long[][] CELLS = new long[2][GRID_SIZE];
+    private static final long PLAYER;
+    static {
+        Random random = new Random(0);
+        for (long[] keys : CELLS) {
+            for (int i = 0; i < GRID_SIZE; i++) {
+                keys[i] = random.nextLong();
+            }
+        }
+        PLAYER = random.nextLong();
+    }
+
+    private long hash;
+
+    @Override
+    public void clean() {
+        super.clean();
+        hash = 0;
+    }
+
+    @Override
+    public ZobristState clone() {
+        ZobristState clone = new ZobristState();
+        clone.turn = turn;
+        clone.currentPlayer = currentPlayer;
+        clone.hash = hash;
+        System.arraycopy(grid, 0, clone.grid, 0, GRID_SIZE);
+        return clone;
+    }
+
+    @Override
+    void makeMove(IAMove move) {
+        hash ^= CELLS[currentPlayer][move.getPosition()];
+        super.makeMove(move);
+    }
+
+    @Override
+    void unmakeMove(IAMove move) {
+        super.unmakeMove(move);
+        hash ^= CELLS[currentPlayer][move.getPosition()];
+    }
+
+    @Override
+    void next() {
+        super.next();
+        hash ^= PLAYER;
+    }
+
+    @Override
+    void previous() {
+        super.previous();
+        hash ^= PLAYER;
+    }
+
+    long getHash() {
+        return hash;
+    }
+}